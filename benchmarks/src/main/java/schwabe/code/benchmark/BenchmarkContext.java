@@ -0,0 +1,82 @@
+package schwabe.code.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import schwabe.code.services.util.SpringContext;
+
+import javax.sql.DataSource;
+import java.util.Properties;
+
+/**
+ * Spring configuration with an in-memory H2 database, Hibernate and the benchmark repositories.
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = BenchmarkContext.class)
+@EnableTransactionManagement
+@Import(SpringContext.class)
+public class BenchmarkContext {
+
+    @Bean
+    public DataSource dataSource() {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        var factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan(BenchmarkContext.class.getPackageName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        var properties = new Properties();
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        factory.setJpaProperties(properties);
+        return factory;
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * Starts the context and inserts synthetic rows.
+     * @param rows the number of entities
+     * @param tags the number of collection elements per entity
+     * @return the running context, close it in the tear down
+     */
+    public static AnnotationConfigApplicationContext start(int rows, int tags) {
+        var context = new AnnotationConfigApplicationContext(BenchmarkContext.class);
+        var jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbc.update("""
+                INSERT INTO WideEntity (id, version, name, email, street, city, country, category, status,
+                    quantity, rating, score, amount, price, active, archived, createdDate, dueDate, updatedAt, description)
+                SELECT X, 0, 'Name ' || X, 'user' || X || '@example.com', X || ' Main Street', 'City ' || MOD(X, 100),
+                    'Country ' || MOD(X, 20), 'Category ' || MOD(X, 10), 'Status ' || MOD(X, 5),
+                    MOD(X, 1000), MOD(X, 5), MOD(X, 100), X * 1.5, MOD(X, 500) * 0.99, MOD(X, 2) = 0, MOD(X, 7) = 0,
+                    DATEADD('DAY', -MOD(X, 3650), CURRENT_DATE), DATEADD('DAY', MOD(X, 365), CURRENT_DATE),
+                    DATEADD('MINUTE', -X, CURRENT_TIMESTAMP), REPEAT('Lorem ipsum dolor sit amet. ', 40)
+                FROM SYSTEM_RANGE(1, ?)
+                """, rows);
+        jdbc.update("ALTER TABLE WideEntity ALTER COLUMN id RESTART WITH " + (rows + 1));
+        if (tags > 0) {
+            jdbc.update("""
+                    INSERT INTO WideEntity_tags (WideEntity_id, tags)
+                    SELECT e.X, 'Tag ' || t.X FROM SYSTEM_RANGE(1, ?) e CROSS JOIN SYSTEM_RANGE(1, ?) t
+                    """, rows, tags);
+        }
+        return context;
+    }
+}
@@ -0,0 +1,48 @@
+package schwabe.code.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import schwabe.code.AutoGrid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of an AutoGrid in lazy, paged mode against the in-memory mode loading all rows.
+ * <p>Run with {@code -prof gc} to see the allocation rate per construction.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstructionBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    @Param({"3"})
+    public int tags;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkContext.start(this.rows, this.tags);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public AutoGrid<WideEntity, Long, WideEntityRepository> lazyPaged() {
+        return new AutoGrid<>(WideEntity.class, WideEntityRepository.class);
+    }
+
+    @Benchmark
+    public AutoGrid<WideEntity, Long, WideEntityCrudRepository> inMemoryFindAll() {
+        return new AutoGrid<>(WideEntity.class, WideEntityCrudRepository.class);
+    }
+}
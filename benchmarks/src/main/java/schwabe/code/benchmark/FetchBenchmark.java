@@ -0,0 +1,75 @@
+package schwabe.code.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.data.AutoGridFilter;
+import schwabe.code.services.data.RepositoryAccess;
+import schwabe.code.services.util.OffsetPageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the page and count queries of the lazy data provider at shallow and deep offsets, with and without filter.
+ * <p>Pass {@code -p rows=1000000} for the large data set, seeding takes a while.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FetchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"50"})
+    public int pageSize;
+
+    private AnnotationConfigApplicationContext context;
+    private RepositoryAccess<WideEntity, Long> access;
+    private AutoGridFilter<WideEntity> filter;
+    private Sort sort;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkContext.start(this.rows, 3);
+        this.access = new RepositoryAccess<>(WideEntity.class, WideEntityRepository.class);
+        this.access.setQueryCache(null);
+        this.filter = new AutoGridFilter<>();
+        this.filter.setText("city", "City 4");
+        this.sort = Sort.by("name");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public List<WideEntity> fetchFirstPage() {
+        return this.access.fetch(new OffsetPageRequest(0, this.pageSize, this.sort), null);
+    }
+
+    @Benchmark
+    public List<WideEntity> fetchDeepPage() {
+        return this.access.fetch(new OffsetPageRequest(this.rows - this.pageSize, this.pageSize, this.sort), null);
+    }
+
+    @Benchmark
+    public List<WideEntity> fetchFilteredPage() {
+        return this.access.fetch(new OffsetPageRequest(0, this.pageSize, this.sort), this.filter);
+    }
+
+    @Benchmark
+    public long count() {
+        return this.access.count(null);
+    }
+
+    @Benchmark
+    public long countFiltered() {
+        return this.access.count(this.filter);
+    }
+}
@@ -0,0 +1,77 @@
+package schwabe.code.benchmark;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.data.renderer.LitRenderer;
+import com.vaadin.flow.internal.JsonSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import schwabe.code.AutoGrid;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the server side cost of rendering one page of the collection column per display type.
+ * <p>Component renderers create one component tree per row, Lit renderers only serialize the labels.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"COMBOBOX", "BADGE", "LIT_BADGE"})
+    public AutoGrid.CollectionComponentType displayType;
+
+    @Param({"3", "20"})
+    public int tags;
+
+    private AnnotationConfigApplicationContext context;
+    private Grid.Column<WideEntity> column;
+    private List<WideEntity> page;
+    private List<String> labels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkContext.start(AutoGrid.DEFAULT_PAGE_SIZE, this.tags);
+        var autoGrid = new AutoGrid<>(WideEntity.class, WideEntityCrudRepository.class);
+        this.column = autoGrid.setCollectionFieldRenderer("tags", this.displayType, String::valueOf);
+        this.page = autoGrid.getGrid().getGenericDataView().getItems().toList();
+        this.labels = IntStream.rangeClosed(1, this.tags).mapToObj(i -> "Tag " + i).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public void renderPage(Blackhole blackhole) {
+        var renderer = this.column.getRenderer();
+        if (renderer instanceof ComponentRenderer<?, WideEntity> componentRenderer) {
+            for (var item : this.page) {
+                blackhole.consume(componentRenderer.createComponent(item));
+            }
+        } else if (renderer instanceof LitRenderer<WideEntity> litRenderer) {
+            var valueProviders = litRenderer.getValueProviders().values();
+            for (var item : this.page) {
+                for (var valueProvider : valueProviders) {
+                    blackhole.consume(JsonSerializer.toJson(valueProvider.apply(item)));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Component badgeList() {
+        var badgeList = new AutoGrid.BadgeListComponent("", AutoGrid.CollectionComponentType.BADGE);
+        badgeList.setItems(this.labels);
+        return badgeList;
+    }
+}
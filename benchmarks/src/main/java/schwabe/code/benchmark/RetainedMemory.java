@@ -0,0 +1,65 @@
+package schwabe.code.benchmark;
+
+import schwabe.code.AutoGrid;
+import schwabe.code.services.util.SerializationHelper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Prints the heap retained per AutoGrid instance, which JMH does not measure,
+ * and the serialized size a replicated session grows by.
+ * <p>Arguments: number of rows (default 10000), number of instances (default 20).</p>
+ */
+public class RetainedMemory {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int instances = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        try (var context = BenchmarkContext.start(rows, 3)) {
+            // warm up class loading and metadata caches
+            new AutoGrid<>(WideEntity.class, WideEntityRepository.class);
+            new AutoGrid<>(WideEntity.class, WideEntityCrudRepository.class);
+            System.out.printf("rows=%d, instances=%d%n", context.getBean(WideEntityRepository.class).count(), instances);
+            print("lazy paged:      ", instances, () -> new AutoGrid<>(WideEntity.class, WideEntityRepository.class));
+            print("lazy id-only:    ", instances, () -> {
+                var grid = new AutoGrid<>(WideEntity.class, WideEntityRepository.class);
+                grid.setIdOnlyRetention(true);
+                return grid;
+            });
+            print("in-memory (all): ", instances, () -> new AutoGrid<>(WideEntity.class, WideEntityCrudRepository.class));
+            print("in-memory ids:   ", instances, () -> {
+                var grid = new AutoGrid<>(WideEntity.class, WideEntityCrudRepository.class);
+                grid.setIdOnlyRetention(true);
+                return grid;
+            });
+        }
+    }
+
+    private static void print(String label, int instances, Supplier<Object> factory) {
+        System.out.printf("%s %,d bytes per grid, %,d bytes serialized%n",
+                label, measure(instances, factory), SerializationHelper.serializedSize(factory.get()));
+    }
+
+    private static long measure(int instances, Supplier<Object> factory) {
+        var retained = new ArrayList<>(instances);
+        long before = usedHeap();
+        for (int i = 0; i < instances; i++) {
+            retained.add(factory.get());
+        }
+        long after = usedHeap();
+        if (retained.size() != instances) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / instances;
+    }
+
+    private static long usedHeap() {
+        var memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
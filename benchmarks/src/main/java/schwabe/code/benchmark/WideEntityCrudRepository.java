@@ -0,0 +1,9 @@
+package schwabe.code.benchmark;
+
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository used by the in-memory AutoGrid mode, which loads everything with findAll().
+ */
+public interface WideEntityCrudRepository extends CrudRepository<WideEntity, Long> {
+}
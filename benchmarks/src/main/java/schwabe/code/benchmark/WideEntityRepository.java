@@ -0,0 +1,10 @@
+package schwabe.code.benchmark;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+/**
+ * Repository used by the lazy, paged AutoGrid mode.
+ */
+public interface WideEntityRepository extends JpaRepository<WideEntity, Long>, JpaSpecificationExecutor<WideEntity> {
+}
@@ -1,8 +1,12 @@
 package schwabe.code;
 
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.Composite;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.HasSize;
 import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.ItemLabelGenerator;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
@@ -10,114 +14,1138 @@ import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.datetimepicker.DateTimePicker;
-import com.vaadin.flow.component.formlayout.FormLayout;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.FooterRow;
+import com.vaadin.flow.component.grid.HeaderRow;
+import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.FlexLayout;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.splitlayout.SplitLayout;
 import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.component.textfield.NumberField;
 import com.vaadin.flow.component.textfield.TextField;
-import com.vaadin.flow.data.binder.BeanValidationBinder;
 import com.vaadin.flow.data.binder.ValidationException;
 import com.vaadin.flow.data.provider.*;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.data.renderer.LitRenderer;
 import com.vaadin.flow.data.renderer.Renderer;
+import com.vaadin.flow.data.value.HasValueChangeMode;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.dom.ElementFactory;
 import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.theme.lumo.LumoUtility;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.QueryByExampleExecutor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
+import schwabe.code.services.aggregate.AggregateFooter;
+import schwabe.code.services.bulk.BulkActions;
+import schwabe.code.services.cache.QueryCache;
+import schwabe.code.services.data.AggregateQuery;
+import schwabe.code.services.data.AutoGridFilter;
+import schwabe.code.services.data.BatchSaver;
+import schwabe.code.services.data.BulkOperation;
+import schwabe.code.services.data.KeysetPager;
+import schwabe.code.services.data.RepositoryAccess;
+import schwabe.code.services.editor.EditorForm;
+import schwabe.code.services.editor.EditorPool;
+import schwabe.code.services.event.EntityChangeBus;
+import schwabe.code.services.event.EntityChangeEvent;
+import schwabe.code.services.event.EntityChangeHandler;
+import schwabe.code.services.export.ExportFormat;
+import schwabe.code.services.export.ExportSnapshot;
+import schwabe.code.services.export.GridExporter;
+import schwabe.code.services.memory.MemoryBudget;
+import schwabe.code.services.metrics.AutoGridMetrics;
+import schwabe.code.services.util.AsyncHelper;
 import schwabe.code.services.util.CapitalizeHelper;
-import schwabe.code.services.util.SpringContext;
+import schwabe.code.services.util.EntityMetadata;
+import schwabe.code.services.util.OffsetPageRequest;
+import schwabe.code.services.util.PageRequestHelper;
 
-import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
+import java.io.Serial;
+import java.io.Serializable;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 
 /**
  * Creates a {@link Grid} and populates data from the given repository.
  * The provided repository needs to be extending {@link CrudRepository}.
  *
- * <p>Currently supports only JPA Repositories.</p>
+ * <p>Currently supports only JPA Repositories.
+ * If the repository is a {@link PagingAndSortingRepository}, the data is loaded lazily page by page.
+ * Column filters are pushed down to the database for a {@link JpaSpecificationExecutor}
+ * or {@link QueryByExampleExecutor}, see {@link #addFilterRow()}.</p>
  * @param <T> The java bean type, also known as Source
  * @param <ID> The type of auto generated entity id, e.g {@link Long}
  * @param <R> The class type of the repository
  */
 public class AutoGrid<T, ID, R extends CrudRepository<T, ID>> extends Composite<Div> {
 
-    private BeanValidationBinder<T> binder;
-    private FormLayout formLayout;
+    private final Map<String, CollectionComponentType> formDisplayTypes = new HashMap<>();
+    private final SplitLayout splitLayout = new SplitLayout();
+    private final Div editorDiv = new Div();
+    private final EditorForm<T> editorForm;
+    private boolean browseOnly;
+    private T detachedEditItem;
 
     private final Grid<T> grid;
     private final Class<R> repository;
     private final Class<T> bean;
-    private final Map<Field, HasListDataView<String, AbstractListDataView<String>>> fieldComponentMap;
-    private final Map<Field, ItemLabelGenerator<Object>> fieldItemLabelGeneratorMap;
+    private final RepositoryAccess<T, ID> repositoryAccess;
+    private final GridExporter<T, ID> exporter;
+    private final AggregateFooter<T> aggregates;
+    private final BulkActions<T, ID> bulkActions;
+    private final AutoGridFilter<T> filter = new AutoGridFilter<>();
+    private HeaderRow filterRow;
+    private ValueProvider<T, ID> idExtractor;
+    private int filterDebounceTimeout = DEFAULT_FILTER_DEBOUNCE_TIMEOUT;
+    private boolean bufferedEditing;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private final Map<Object, T> dirtyItems = new LinkedHashMap<>();
+    private final Set<Object> failedItems = new HashSet<>();
+    private final Set<Object> flushingItems = new HashSet<>();
+    private transient Executor executor;
+    private transient Future<?> pendingLoad;
+    private int loadGeneration;
+    private final EntityChangeHandler<T, ID> changeHandler;
+    private transient AutoGridMetrics metrics;
+    private transient Registration metricsRegistration;
+    private int lastFetchSize;
+    private boolean liveUpdates = true;
+    private boolean dataLoaded;
+    private boolean columnProjection;
+    private boolean collectionBatchFetch = true;
+    private KeysetPager<T, ID> keysetPager;
+    private boolean idOnlyRetention;
+    private boolean idData;
+    private List<ID> retainedIds;
+    private Sort retainedIdsSort = Sort.unsorted();
+    private final MemoryBudget<T> memoryBudget;
+    private transient List<T> prefetchedPage;
+    private long prefetchedCount = -1;
+    private Button flushButton;
+    private Button bulkEditButton;
+    private boolean multiSelect;
+    private final Map<String, ItemLabelGenerator<Object>> fieldItemLabelGeneratorMap;
     private CollectionComponentType displayType = CollectionComponentType.COMBOBOX;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    /**
+     * Default number of items fetched per request in lazy mode.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Default delay in milliseconds after the last keystroke before a text or number filter is applied.
+     */
+    public static final int DEFAULT_FILTER_DEBOUNCE_TIMEOUT = 400;
+
+    /**
+     * Default number of items per {@link CrudRepository#saveAll(Iterable) saveAll()} call in buffered editing mode.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    /**
+     * Number of rows loaded per query while exporting, see {@link GridExporter}.
+     */
+    public static final int EXPORT_CHUNK_SIZE = GridExporter.CHUNK_SIZE;
+
+    /**
+     * Smallest page size a {@link #setSessionMemoryBudget(long) memory budget} lowers the page size to.
+     */
+    public static final int MIN_BUDGET_PAGE_SIZE = MemoryBudget.MIN_PAGE_SIZE;
 
     /**
      * Basic constructor for creating an instance of Auto-Grid.
      * @param bean the java bean
      * @param repository the {@link CrudRepository} class
      */
-    public AutoGrid(Class<T> bean, Class<R> repository) {
-        this.bean = bean;
-        this.repository = repository;
-        this.grid = new Grid<>(this.bean);
-        this.orderColumnsByEntity();
-        this.grid.getColumns().forEach(tColumn -> tColumn.setAutoWidth(true));
-        this.fieldComponentMap = new HashMap<>();
-        this.fieldItemLabelGeneratorMap = new HashMap<>();
-        var splitLayout = new SplitLayout();
-        splitLayout.setSplitterPosition(80);
-        splitLayout.addToPrimary(this.grid);
+    public AutoGrid(Class<T> bean, Class<R> repository) {
+        this(bean, repository, false);
+    }
+
+    /**
+     * Constructor for creating an instance of Auto-Grid that optionally loads its data in the background.
+     * <p>In asynchronous mode the grid is rendered empty and the first page is loaded on the
+     * {@link #getExecutor() executor} once the component is attached. The data is delivered through
+     * {@link UI#access(Command)}, so the UI should use {@link com.vaadin.flow.component.page.Push Server Push}.
+     * A load still running when the component is detached is cancelled. The filter and fetch settings are read
+     * when the load starts, if they have changed when it completes the result is discarded and loaded again.</p>
+     * @param bean the java bean
+     * @param repository the {@link CrudRepository} class
+     * @param asyncLoading true to load the data in the background
+     */
+    public AutoGrid(Class<T> bean, Class<R> repository, boolean asyncLoading) {
+        this.bean = bean;
+        this.repository = repository;
+        this.repositoryAccess = new RepositoryAccess<>(bean, repository);
+        this.exporter = new GridExporter<>(bean, repository);
+        this.grid = new Grid<>(this.bean);
+        this.aggregates = new AggregateFooter<>(bean, this.grid, this.repositoryAccess);
+        this.bulkActions = new BulkActions<>(bean, this.repositoryAccess);
+        this.editorForm = new EditorForm<>(bean, this.editorDiv);
+        this.memoryBudget = new MemoryBudget<>(bean);
+        this.changeHandler = new EntityChangeHandler<>(bean, repository, this.grid, this.repositoryAccess, new ChangeTarget());
+        this.orderColumnsByEntity();
+        this.grid.getColumns().forEach(tColumn -> tColumn.setAutoWidth(true));
+        this.fieldItemLabelGeneratorMap = new HashMap<>();
+        this.splitLayout.setSplitterPosition(80);
+        this.splitLayout.addToPrimary(this.grid);
+
+        metadata().findIdProperty().ifPresent(idProperty -> this.idExtractor = idValueProvider(idProperty));
+        if (this.idExtractor != null) {
+            this.changeHandler.trackHeldIds();
+        }
+        if (asyncLoading) {
+            this.addAttachListener(event -> this.populateDataAsync(event.getUI()));
+            this.addDetachListener(event -> this.cancelPendingLoad());
+        } else {
+            this.populateData(this.repository);
+        }
+        this.createEditorLayout();
+
+        this.installSelectionListener();
+
+        this.grid.setPartNameGenerator(this::rowPartName);
+
+        this.getContent().add(this.splitLayout);
+        this.getContent().setWidthFull();
+        this.addClassNames("master-detail-view");
+    }
+
+
+    /**
+     * Returns the display type of the collection fields.
+     * <p>See {@link CollectionComponentType} for available options.</p>
+     * @return
+     */
+    public CollectionComponentType getDisplayType() {
+        return displayType;
+    }
+
+    /**
+     * Get the instance of the underlying {@link Grid}.
+     * @return the instance of Grid.
+     */
+    public Grid<T> getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the number of items fetched per request in lazy mode.
+     * @return the page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the number of items fetched per request in lazy mode.
+     * The grid holds the visible rows plus about one page as prefetch buffer,
+     * so this bounds the amount of entities kept in memory per instance.
+     * @param pageSize the page size, must be greater than zero
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        this.pageSize = pageSize;
+        this.grid.setPageSize(effectivePageSize());
+    }
+
+    /**
+     * Sets the function extracting the repository id of an item.
+     * <p>The id is used as item identity of the grid, so single items can be refreshed after a save.
+     * Defaults to the value of the field annotated with {@code @Id} or {@code @EmbeddedId}.</p>
+     * @param idExtractor the id extractor, must not return null for persisted items
+     */
+    public void setIdExtractor(ValueProvider<T, ID> idExtractor) {
+        this.idExtractor = Objects.requireNonNull(idExtractor);
+        this.changeHandler.trackHeldIds();
+        if (this.dataLoaded) {
+            this.applyIdentifierProvider();
+        }
+    }
+
+    /**
+     * Reads the id property, whose values have the id type of the repository {@code CrudRepository<T, ID>}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, ID> ValueProvider<T, ID> idValueProvider(EntityMetadata.Property idProperty) {
+        return item -> (ID) idProperty.getValue(item);
+    }
+
+    private void applyIdentifierProvider() {
+        if (this.idExtractor != null) {
+            this.grid.getGenericDataView().setIdentifierProvider(item -> {
+                var id = this.idExtractor.apply(item);
+                return id != null ? id : item;
+            });
+        }
+    }
+
+    /**
+     * Returns the repository id of the given item.
+     * @param item the bean
+     * @return the id, null if the item has not been persisted yet
+     */
+    public ID getItemId(T item) {
+        return this.idExtractor != null ? this.idExtractor.apply(item) : null;
+    }
+
+    /**
+     * Clears the selection and opens a new instance of the bean in the editor.
+     * The bean class needs a no-args constructor.
+     */
+    public void editNewItem() {
+        if (this.browseOnly) {
+            throw new IllegalStateException("The editor is not available in browse-only mode");
+        }
+        this.grid.deselectAll();
+        this.editItem(BeanUtils.instantiateClass(this.bean));
+    }
+
+    /**
+     * Saves the item to the repository and updates only this item in the grid.
+     * <p>An existing row is refreshed with the entity returned by {@link CrudRepository#save(Object) save()},
+     * a new item is added. Selection and scroll position are kept.</p>
+     * @param item the bean to save
+     * @return the saved entity
+     */
+    public T saveItem(T item) {
+        var isNew = getItemId(item) == null;
+        var saved = metrics().time(AutoGridMetrics.Operation.SAVE, this.bean, () -> this.repositoryAccess.save(item));
+        if (isNew) {
+            this.onItemCreated(saved);
+        } else {
+            this.onItemUpdated(saved);
+            this.invalidateAggregates();
+        }
+        this.changeHandler.publish(saved, isNew ? EntityChangeEvent.Type.CREATED : EntityChangeEvent.Type.UPDATED);
+        return saved;
+    }
+
+    /**
+     * Deletes the item from the repository and removes only this item from the grid.
+     * @param item the bean to delete
+     */
+    public void deleteItem(T item) {
+        this.repositoryAccess.delete(item);
+        this.onItemDeleted(item);
+        this.changeHandler.publish(item, EntityChangeEvent.Type.DELETED);
+    }
+
+    /**
+     * Returns true if several rows can be selected for bulk actions.
+     * @return true if multi-select is enabled
+     */
+    public boolean isMultiSelect() {
+        return multiSelect;
+    }
+
+    /**
+     * Enables selecting several rows with checkboxes for {@link #bulkUpdate(Map, boolean) bulk updates}
+     * and {@link #bulkDelete(boolean) bulk deletes}.
+     * <p>The editor shows the row while exactly one is selected. A "Bulk edit" button opens a dialog that sets
+     * one field on the selected rows or on all rows matching the filter, or deletes them.</p>
+     * @param multiSelect true to enable multi-select
+     */
+    public void setMultiSelect(boolean multiSelect) {
+        if (this.multiSelect == multiSelect) {
+            return;
+        }
+        this.multiSelect = multiSelect;
+        this.grid.setSelectionMode(multiSelect ? Grid.SelectionMode.MULTI : Grid.SelectionMode.SINGLE);
+        // a new selection model has no listeners
+        this.installSelectionListener();
+        this.bulkEditButton.setVisible(multiSelect);
+        this.clearForm();
+    }
+
+    /**
+     * Sets the values on the selected rows or on all rows matching the filter with set-based update statements,
+     * without loading the entities, and refreshes the grid once.
+     * <p>The values are checked with the bean validation constraints of their properties first.
+     * Rows are selected by id in chunks of {@link BulkOperation#MAX_IN_SIZE}, or by the filter with a single
+     * statement. A numeric {@code @Version} is incremented, so pending {@link #setBufferedEditing(boolean)
+     * buffered} changes of the rows are reported as conflicts when flushed. Entity listeners are not called.</p>
+     * @param values the new value per property name, only singular properties other than id and version
+     * @param allMatchingFilter true to update all rows matching the filter instead of the selected rows
+     * @return the number of updated rows
+     * @throws ValidationException if a value violates a constraint of its property
+     * @throws IllegalArgumentException if a property cannot be set or a value has the wrong type
+     * @throws UnsupportedOperationException if no JPA {@code EntityManager}, {@code PlatformTransactionManager}
+     * or id property is available
+     */
+    public int bulkUpdate(Map<String, Object> values, boolean allMatchingFilter) throws ValidationException {
+        this.bulkActions.checkValues(values, locale());
+        var ids = selectedIds();
+        if (!allMatchingFilter && ids.isEmpty()) {
+            return 0;
+        }
+        var updated = this.bulkActions.update(values, allMatchingFilter, this.filter, ids, metrics());
+        this.refreshAfterBulkChange();
+        this.changeHandler.publishBulk(EntityChangeEvent.Type.UPDATED);
+        return updated;
+    }
+
+    /**
+     * Deletes the selected rows or all rows matching the filter with set-based delete statements,
+     * without loading the entities, and refreshes the grid once.
+     * <p>Cascades and orphan removal are not applied, see {@link BulkOperation}.</p>
+     * @param allMatchingFilter true to delete all rows matching the filter instead of the selected rows
+     * @return the number of deleted rows
+     * @throws UnsupportedOperationException if no JPA {@code EntityManager}, {@code PlatformTransactionManager}
+     * or id property is available
+     */
+    public int bulkDelete(boolean allMatchingFilter) {
+        this.bulkActions.checkSupported();
+        var ids = selectedIds();
+        if (!allMatchingFilter && ids.isEmpty()) {
+            return 0;
+        }
+        var deleted = this.bulkActions.delete(allMatchingFilter, this.filter, ids, metrics());
+        ids.forEach(this.dirtyItems::remove);
+        this.updateFlushButton();
+        this.refreshAfterBulkChange();
+        this.changeHandler.publishBulk(EntityChangeEvent.Type.DELETED);
+        return deleted;
+    }
+
+    private List<ID> selectedIds() {
+        return this.grid.getSelectedItems().stream().map(this::getItemId).filter(Objects::nonNull).toList();
+    }
+
+    private Locale locale() {
+        return getUI().map(UI::getLocale).orElseGet(Locale::getDefault);
+    }
+
+    /**
+     * Reloads the data once after rows have been changed without loading them.
+     */
+    private void refreshAfterBulkChange() {
+        this.grid.deselectAll();
+        this.aggregates.invalidate();
+        if (isInMemory()) {
+            metrics().time(AutoGridMetrics.Operation.REFRESH, this.bean, () -> this.populateData(this.repository));
+            this.updateAggregates();
+        } else {
+            this.refreshFilter();
+        }
+    }
+
+    /**
+     * Returns true if the grid is shown without editor.
+     * @return true if browse-only mode is enabled
+     */
+    public boolean isBrowseOnly() {
+        return browseOnly;
+    }
+
+    /**
+     * Shows only the grid, without editor form and buttons, for views that never edit.
+     * <p>The editor fields and binder are otherwise built when a row is selected for the first time, and released
+     * for reuse by other AutoGrids of the same entity class in the UI when this instance is detached.
+     * In browse-only mode they are never built, selecting a row does not edit it.</p>
+     * @param browseOnly true to hide the editor
+     */
+    public void setBrowseOnly(boolean browseOnly) {
+        if (this.browseOnly == browseOnly) {
+            return;
+        }
+        this.browseOnly = browseOnly;
+        this.getContent().removeAll();
+        if (browseOnly) {
+            getUI().ifPresentOrElse(this::releaseEditor, this.editorForm::discard);
+            this.detachedEditItem = null;
+            this.getContent().add(this.grid);
+        } else {
+            this.splitLayout.addToPrimary(this.grid);
+            this.getContent().add(this.splitLayout);
+        }
+    }
+
+    /**
+     * Returns true if the session keeps only ids and row snapshots instead of complete entities.
+     * @return true if id-only retention is enabled
+     */
+    public boolean isIdOnlyRetention() {
+        return idOnlyRetention;
+    }
+
+    /**
+     * Keeps only entity ids and lightweight row snapshots in the session, and loads entities by id when needed.
+     * <p>A non-paging repository is no longer loaded into memory: the ids of all rows are kept and the visible
+     * rows are loaded by id, sorting re-queries the ids in the requested order. Pages of a paging repository are
+     * loaded as {@link #setColumnProjection(boolean) column projections} where possible, with only the visible
+     * columns. Collection columns configured afterwards by {@link #setCollectionFieldRenderer} are rendered on the
+     * client without a component per cell, and the edited row is always loaded by id.</p>
+     * <p>Combine it with {@link #setSessionMemoryBudget(long)} to bound and measure the retained size.
+     * Entities still need to implement {@link Serializable} for session replication.</p>
+     * @param idOnlyRetention true to retain only ids and row snapshots
+     * @throws UnsupportedOperationException if no JPA {@code EntityManager} or id property is available
+     */
+    public void setIdOnlyRetention(boolean idOnlyRetention) {
+        if (idOnlyRetention && !this.repositoryAccess.supportsIdQueries()) {
+            throw new UnsupportedOperationException(this.bean.getName()
+                    + " needs a JPA EntityManager and an id property for id-only retention");
+        }
+        if (this.idOnlyRetention == idOnlyRetention) {
+            return;
+        }
+        this.idOnlyRetention = idOnlyRetention;
+        this.memoryBudget.resetRowSize();
+        if (this.dataLoaded) {
+            if (this.repositoryAccess.isPageable()) {
+                this.refreshFilter();
+            } else {
+                this.populateData(this.repository);
+            }
+        }
+    }
+
+    /**
+     * Returns the memory the rows of this instance may retain in the session.
+     * @return the budget in bytes, 0 for no limit
+     */
+    public long getSessionMemoryBudget() {
+        return this.memoryBudget.getBudget();
+    }
+
+    /**
+     * Sets the memory the rows of this instance may retain in the session, measured as serialized size.
+     * <p>The size of a row is measured once by serializing a sample of the first loaded rows. The page size is then
+     * lowered, down to {@link #MIN_BUDGET_PAGE_SIZE} rows, so that about two pages of rows plus the retained ids
+     * stay within the budget. All rows of a non-paging repository without {@link #setIdOnlyRetention(boolean)
+     * id-only retention} and pending buffered changes are counted but cannot be limited.
+     * Monitor it with {@link #getRetainedBytes()} or the {@code autogrid.retained.bytes} gauge.</p>
+     * @param bytes the budget in bytes, 0 for no limit
+     * @throws IllegalArgumentException if the budget is negative or the entity class is not {@link Serializable}
+     */
+    public void setSessionMemoryBudget(long bytes) {
+        this.memoryBudget.setBudget(bytes);
+        this.applyMemoryBudget();
+    }
+
+    /**
+     * Returns the estimated serialized size of the rows, edited item and ids this instance currently retains.
+     * @return the size in bytes, 0 until rows of a {@link Serializable} entity class have been loaded
+     */
+    public long getRetainedBytes() {
+        return this.memoryBudget.getRetainedBytes();
+    }
+
+    /**
+     * Enables updating the grid when other sessions change entities of the same class.
+     * <p>Changes made through any AutoGrid are published on the {@link EntityChangeBus}. Attached instances with
+     * live updates refresh the affected rows through {@link UI#access(Command)}, coalesced per UI, so the UI
+     * should use {@link com.vaadin.flow.component.page.Push Server Push}. The changed rows of an interval are loaded
+     * with one query shared by all notified grids, so the edited item is then always loaded as a private copy.
+     * Enabled by default.</p>
+     * @param liveUpdates true to listen for changes of other sessions
+     */
+    public void setLiveUpdates(boolean liveUpdates) {
+        this.liveUpdates = liveUpdates;
+        if (!liveUpdates) {
+            this.changeHandler.unregister();
+        } else {
+            getUI().ifPresent(this.changeHandler::register);
+        }
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        if (this.liveUpdates) {
+            this.changeHandler.register(attachEvent.getUI());
+        }
+        if (this.metricsRegistration == null) {
+            this.metricsRegistration = metrics().registerInstance(this.bean, this.memoryBudget::getItemsHeld, this.memoryBudget::getRetainedBytes);
+        }
+        if (this.detachedEditItem != null) {
+            this.showInEditor(this.detachedEditItem);
+            this.detachedEditItem = null;
+        }
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        this.changeHandler.unregister();
+        var edited = editedItem();
+        this.releaseEditor(detachEvent.getUI());
+        // the binder writes valid input directly to the bean, so editing it again restores the form
+        this.detachedEditItem = edited;
+        if (this.metricsRegistration != null) {
+            this.metricsRegistration.remove();
+            this.metricsRegistration = null;
+        }
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Returns the metrics, resolved once per instance and after deserialization.
+     */
+    private AutoGridMetrics metrics() {
+        if (this.metrics == null) {
+            this.metrics = AutoGridMetrics.get();
+        }
+        return this.metrics;
+    }
+
+    /**
+     * Updates the number of items held in memory reported to the metrics: all items of an in-memory grid,
+     * or the last fetched page of a lazy grid, plus the dirty items. The retained size adds the edited item
+     * and the retained ids, using the measured size per row and id.
+     */
+    @SuppressWarnings("unchecked")
+    private void updateItemsHeld() {
+        var rows = isInMemory() ? ((ListDataProvider<T>) this.grid.getDataProvider()).getItems().size() : this.lastFetchSize;
+        this.memoryBudget.update(rows + this.dirtyItems.size(), editedItem() != null ? 1 : 0, retainedIdCount());
+    }
+
+    /**
+     * Measures the size of a row once, see {@link MemoryBudget#measureRows(Collection)}, and applies the budget.
+     */
+    private void measureRowBytes(Collection<T> items) {
+        if (this.memoryBudget.measureRows(items)) {
+            // the page size must not change while the grid fetches
+            this.getElement().getNode().runWhenAttached(ui -> ui.beforeClientResponse(this, context -> this.applyMemoryBudget()));
+        }
+    }
+
+    /**
+     * Returns the page size, lowered to keep about two pages of rows plus the retained ids within the memory budget.
+     */
+    private int effectivePageSize() {
+        return this.memoryBudget.pageSize(this.pageSize, retainedIdCount());
+    }
+
+    private int retainedIdCount() {
+        return this.retainedIds != null ? this.retainedIds.size() : 0;
+    }
+
+    private void applyMemoryBudget() {
+        var effective = effectivePageSize();
+        if (this.grid.getPageSize() != effective) {
+            this.grid.setPageSize(effective);
+        }
+    }
+
+    /**
+     * Returns true if saved items are collected and written in batches by {@link #flush()}.
+     * @return true if buffered editing is enabled
+     */
+    public boolean isBufferedEditing() {
+        return bufferedEditing;
+    }
+
+    /**
+     * Enables buffered editing.
+     * <p>The Save button then only collects the edited bean as dirty item. The dirty items are written
+     * with {@link CrudRepository#saveAll(Iterable) saveAll()} by the Save all button or {@link #flush()},
+     * in the background on the {@link #setExecutor(Executor) executor}.</p>
+     * @param bufferedEditing true to enable buffered editing
+     */
+    public void setBufferedEditing(boolean bufferedEditing) {
+        this.bufferedEditing = bufferedEditing;
+        this.flushButton.setVisible(bufferedEditing);
+    }
+
+    /**
+     * Sets the number of items per {@link CrudRepository#saveAll(Iterable) saveAll()} call used by {@link #flush()}.
+     * @param batchSize the batch size, must be greater than zero
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than zero");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the executor for background work.
+     * @return the configured executor, or the shared default using virtual threads where the JDK allows
+     */
+    public Executor getExecutor() {
+        return executor != null ? executor : AsyncHelper.getDefaultExecutor();
+    }
+
+    /**
+     * Sets the executor for background work, see {@link AsyncHelper#getDefaultExecutor()} for the default.
+     * @param executor the executor, null for the default
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the edited items that have not been written yet in buffered editing mode.
+     * @return unmodifiable list of dirty items
+     */
+    public List<T> getDirtyItems() {
+        return List.copyOf(this.dirtyItems.values());
+    }
+
+    /**
+     * Writes all dirty items in batches on the {@link #getExecutor() executor}.
+     * <p>The executor saves detached copies of the items, see {@link EntityMetadata#copy(Object)}, while the grid
+     * keeps showing the items. The rows stay read-only in the editor until the grid is updated through
+     * {@link UI#access(Command)} when the batches are done, so the UI should use
+     * {@link com.vaadin.flow.component.page.Push Server Push}. Items with a {@code @Version} conflict or another
+     * failure are reported per row and stay dirty, all other items are saved.</p>
+     * @return the result of the batches, keyed by the dirty items
+     * @throws IllegalStateException if the component is not attached
+     */
+    public CompletableFuture<BatchSaver.Result<T>> flush() {
+        var ui = getUI().orElseThrow(() -> new IllegalStateException("AutoGrid needs to be attached to flush"));
+        var items = this.dirtyItems.values().stream().filter(item -> !isFlushing(item)).toList();
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(BatchSaver.Result.empty());
+        }
+        Set<T> newItems = Collections.newSetFromMap(new IdentityHashMap<>());
+        items.stream().filter(item -> getItemId(item) == null).forEach(newItems::add);
+        // the executor must not touch the instances the binder and renderers use, persist sets the id of new items
+        var originals = new IdentityHashMap<T, T>();
+        items.forEach(item -> originals.put(metadata().copy(item), item));
+        var copies = List.copyOf(originals.keySet());
+        var keys = items.stream().map(item -> dirtyKey(item, newItems.contains(item))).toList();
+        this.flushingItems.addAll(keys);
+        this.updateEditorLock();
+        var saver = new BatchSaver<>(this.repositoryAccess, this.batchSize);
+        this.flushButton.setEnabled(false);
+        var metrics = metrics();
+        return CompletableFuture.supplyAsync(() -> toOriginals(metrics.time(AutoGridMetrics.Operation.SAVE, this.bean,
+                        () -> saver.save(copies)), originals), getExecutor())
+                .whenComplete((result, error) -> ui.access(() -> {
+                    keys.forEach(this.flushingItems::remove);
+                    this.flushButton.setEnabled(true);
+                    if (error != null) {
+                        Notification.show("Saving failed: " + error.getMessage()).addThemeVariants(NotificationVariant.LUMO_ERROR);
+                    } else {
+                        this.applyFlushResult(result, newItems);
+                    }
+                    this.updateEditorLock();
+                }));
+    }
+
+    private static <T> BatchSaver.Result<T> toOriginals(BatchSaver.Result<T> result, Map<T, T> originals) {
+        var saved = new IdentityHashMap<T, T>();
+        result.saved().forEach((copy, entity) -> saved.put(originals.get(copy), entity));
+        var failed = new IdentityHashMap<T, RuntimeException>();
+        result.failed().forEach((copy, exception) -> failed.put(originals.get(copy), exception));
+        return new BatchSaver.Result<>(saved, failed);
+    }
+
+    /**
+     * Returns true if the item is being saved by {@link #flush()}, it must not be edited until the save is done.
+     */
+    private boolean isFlushing(T item) {
+        return !this.flushingItems.isEmpty() && this.flushingItems.contains(dirtyKey(item, getItemId(item) == null));
+    }
+
+    private void updateEditorLock() {
+        var edited = editedItem();
+        if (edited != null) {
+            this.editorForm.getBinder().setReadOnly(isFlushing(edited));
+        }
+    }
+
+    private void applyFlushResult(BatchSaver.Result<T> result, Set<T> newItems) {
+        var created = new ArrayList<T>();
+        result.saved().forEach((item, saved) -> {
+            this.dirtyItems.remove(dirtyKey(item, newItems.contains(item)), item);
+            this.failedItems.remove(dirtyKey(item, newItems.contains(item)));
+            if (newItems.contains(item)) {
+                created.add(saved);
+            } else {
+                this.onItemUpdated(saved);
+            }
+        });
+        if (!created.isEmpty()) {
+            if (isInMemory()) {
+                this.grid.getListDataView().addItems(created);
+            } else {
+                this.forgetRowPositions();
+                this.grid.getDataProvider().refreshAll();
+            }
+        }
+        result.failed().keySet().forEach(item -> {
+            this.failedItems.add(dirtyKey(item, newItems.contains(item)));
+            this.grid.getDataProvider().refreshItem(item);
+        });
+        this.invalidateAggregates();
+        result.saved().forEach((item, saved) -> this.changeHandler.publish(saved,
+                newItems.contains(item) ? EntityChangeEvent.Type.CREATED : EntityChangeEvent.Type.UPDATED));
+        this.updateFlushButton();
+        if (result.failed().isEmpty()) {
+            Notification.show(result.saved().size() + " rows saved");
+        } else {
+            Notification.show(result.saved().size() + " rows saved, " + result.conflicts().size()
+                    + " rows changed by another user, " + (result.failed().size() - result.conflicts().size())
+                    + " rows failed").addThemeVariants(NotificationVariant.LUMO_ERROR);
+        }
+    }
+
+    private Object dirtyKey(T item, boolean isNew) {
+        var id = isNew ? null : getItemId(item);
+        return id != null ? id : new IdentityKey(item);
+    }
+
+    private void markDirty(T item) {
+        this.dirtyItems.put(dirtyKey(item, getItemId(item) == null), item);
+        this.grid.getDataProvider().refreshItem(item);
+        this.updateFlushButton();
+    }
+
+    private T overlayDirty(T item) {
+        if (this.dirtyItems.isEmpty()) {
+            return item;
+        }
+        var id = getItemId(item);
+        return id != null ? this.dirtyItems.getOrDefault(id, item) : item;
+    }
+
+    private void updateFlushButton() {
+        this.flushButton.setText(this.dirtyItems.isEmpty() ? "Save all" : "Save all (" + this.dirtyItems.size() + ")");
+        this.updateItemsHeld();
+    }
+
+    private String rowPartName(T item) {
+        if (this.dirtyItems.isEmpty()) {
+            return null;
+        }
+        var key = dirtyKey(item, getItemId(item) == null);
+        if (this.failedItems.contains(key)) {
+            return "failed-row";
+        }
+        return this.dirtyItems.containsKey(key) ? "dirty-row" : null;
+    }
+
+    /**
+     * Identity based map key for items without an id.
+     */
+    private record IdentityKey(Object item) implements Serializable {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey that && that.item == this.item;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(item);
+        }
+    }
+
+    /**
+     * Sets the shared cache for the page and count queries of this instance.
+     * <p>By default the {@link QueryCache} Spring bean is used if one exists. Saves and deletes through
+     * AutoGrid invalidate the cached results of the entity class.</p>
+     * @param queryCache the cache, null to disable caching for this instance
+     */
+    public void setQueryCache(QueryCache queryCache) {
+        this.repositoryAccess.setQueryCache(queryCache);
+    }
+
+    /**
+     * Returns true if the lazy data provider loads only the visible columns.
+     * @return true if column projection is enabled
+     */
+    public boolean isColumnProjection() {
+        return columnProjection;
+    }
+
+    /**
+     * Enables loading only the properties of the visible columns and the id in lazy mode.
+     * <p>Pages are fetched with a JPA Criteria tuple query instead of complete entities, so wide entities with
+     * large text or binary columns are not hydrated for the listing. The grid items are then unmanaged,
+     * partially populated instances: the complete entity is loaded by id when a row is selected for editing.
+     * Use {@link #setColumnVisible(String, boolean)} to change the selected columns.</p>
+     * @param columnProjection true to load only the visible columns
+     * @throws UnsupportedOperationException if the repository is not pageable, no JPA {@code EntityManager}
+     * is available or the entity has no writable id property
+     */
+    public void setColumnProjection(boolean columnProjection) {
+        if (columnProjection && this.keysetPager != null) {
+            throw new IllegalStateException("Column projection cannot be combined with keyset paging");
+        }
+        if (columnProjection && !this.repositoryAccess.supportsProjection()) {
+            throw new UnsupportedOperationException(this.bean.getName()
+                    + " needs a pageable repository, a JPA EntityManager and a writable id property for column projection");
+        }
+        this.columnProjection = columnProjection;
+        if (this.dataLoaded) {
+            this.refreshFilter();
+        }
+    }
+
+    /**
+     * Shows or hides the column of the given property.
+     * With {@link #setColumnProjection(boolean) column projection} the data is re-fetched,
+     * so a hidden column is no longer selected from the database.
+     * @param property the field name of the source class
+     * @param visible true to show the column
+     */
+    public void setColumnVisible(String property, boolean visible) {
+        var column = this.grid.getColumnByKey(property);
+        if (column.isVisible() == visible) {
+            return;
+        }
+        column.setVisible(visible);
+        if (this.columnProjection && this.dataLoaded) {
+            this.refreshFilter();
+        }
+    }
+
+    /**
+     * Returns true if the lazy data provider pages by keyset.
+     * @return true if keyset paging is enabled
+     */
+    public boolean isKeysetPaging() {
+        return this.keysetPager != null;
+    }
+
+    /**
+     * Enables keyset (seek) pagination in lazy mode, for deep scrolling over very large tables.
+     * <p>The sort key values of the last row of each page are remembered, so scrolling on continues with a
+     * {@code WHERE (sort keys) > (last row)} query that the database answers with an index seek, instead of an
+     * {@code OFFSET} that gets slower the deeper the user scrolls. The id is appended to every sort to make it unique.
+     * Random jumps, e.g. dragging the scrollbar, fall back to an offset query once. See {@link KeysetPager}.</p>
+     * <p>Pages are loaded as complete entities. Collection columns are {@link #setCollectionBatchFetch(boolean)
+     * batch fetched}: the ids of the page are selected by keyset, then the entities are loaded by id.
+     * {@link #setColumnProjection(boolean) Column projection} is not available. Sorts by columns that may be null, i.e. optional
+     * attributes, are loaded by offset, since a keyset condition would skip their null rows.</p>
+     * @param keysetPaging true to enable keyset paging
+     * @throws UnsupportedOperationException if the repository is no {@link JpaSpecificationExecutor}
+     * or the entity has no id property
+     * @throws IllegalStateException if column projection is enabled
+     */
+    public void setKeysetPaging(boolean keysetPaging) {
+        if (!keysetPaging) {
+            this.keysetPager = null;
+        } else if (this.keysetPager == null) {
+            if (this.columnProjection) {
+                throw new IllegalStateException("Keyset paging cannot be combined with column projection");
+            }
+            if (!this.repositoryAccess.supportsKeysetPaging()) {
+                throw new UnsupportedOperationException(this.repository.getName()
+                        + " needs to extend JpaSpecificationExecutor and the entity needs an id property for keyset paging");
+            }
+            this.keysetPager = new KeysetPager<>(this.repositoryAccess);
+        }
+        if (this.dataLoaded) {
+            this.refreshFilter();
+        }
+    }
+
+    /**
+     * Enables loading the collection properties of the visible columns for a whole page at once.
+     * <p>Pages are loaded by id with an entity graph and one query per collection, so the number of queries
+     * per page does not depend on the number of rows and renderers do not trigger lazy loading per row.
+     * Eager collections are always included. Enabled by default.</p>
+     * <p>Requires a JPA {@code EntityManager} and an id property. Without them and while disabled, the repository
+     * is queried as is and the persistence provider loads each eager collection with one query per row, unless
+     * the mapping batches them itself, e.g. with Hibernate's {@code @BatchSize} or {@code hibernate.default_batch_fetch_size}.
+     * With {@link #setColumnProjection(boolean) column projection} collections are loaded by the projection.</p>
+     * @param collectionBatchFetch true to batch fetch collections
+     */
+    public void setCollectionBatchFetch(boolean collectionBatchFetch) {
+        this.collectionBatchFetch = collectionBatchFetch;
+        if (this.dataLoaded && !this.columnProjection) {
+            this.refreshFilter();
+        }
+    }
+
+    private List<String> collectionsToFetch(Collection<String> properties) {
+        return this.collectionBatchFetch ? this.repositoryAccess.getCollectionsToFetch(properties) : List.of();
+    }
+
+    private List<String> visibleProperties() {
+        return this.grid.getColumns().stream()
+                .filter(Grid.Column::isVisible)
+                .map(Grid.Column::getKey)
+                .filter(key -> key != null && metadata().findProperty(key).isPresent())
+                .toList();
+    }
+
+    /**
+     * Returns the active column filter.
+     * Call {@link #refreshFilter()} after modifying it programmatically.
+     * @return the filter instance
+     */
+    public AutoGridFilter<T> getFilter() {
+        return filter;
+    }
 
-        this.populateData(this.repository);
-        this.createEditorLayout(splitLayout);
+    /**
+     * Sets the delay after the last keystroke before a text or number filter is sent to the database.
+     * Applies to filter components created afterwards by {@link #addFilterRow()}.
+     * @param filterDebounceTimeout the timeout in milliseconds
+     */
+    public void setFilterDebounceTimeout(int filterDebounceTimeout) {
+        this.filterDebounceTimeout = filterDebounceTimeout;
+    }
 
-        this.grid.asSingleSelect().addValueChangeListener(event -> {
-            if (event.getValue() != null) {
-                this.binder.setBean(event.getValue());
-                this.repopulateListFieldComponents(this.fieldComponentMap, this.formLayout, event.getValue());
-            } else {
-                this.clearForm();
-            }
+    /**
+     * Re-runs the paged query and count query with the current filter.
+     */
+    public void refreshFilter() {
+        this.prefetchedPage = null;
+        this.prefetchedCount = -1;
+        this.forgetRowPositions();
+        this.grid.getDataProvider().refreshAll();
+        this.updateAggregates();
+    }
+
+    /**
+     * Adds a header row with a filter component for each column that maps to a bean field.
+     * <p>Text fields are matched with a case-insensitive like, booleans by value.
+     * Numbers and dates are filtered by range if the repository is a {@link JpaSpecificationExecutor},
+     * otherwise by value through Query by Example.</p>
+     * @return the header row containing the filters
+     * @throws UnsupportedOperationException if the repository cannot filter in the database
+     */
+    public HeaderRow addFilterRow() {
+        if (this.filterRow != null) {
+            return this.filterRow;
+        }
+        if (!this.repositoryAccess.isFilterable()) {
+            throw new UnsupportedOperationException(this.repository.getName()
+                    + " needs to extend JpaSpecificationExecutor or QueryByExampleExecutor for filtering");
+        }
+        var ranges = this.repositoryAccess.supportsRangeFilters();
+        this.filterRow = this.grid.appendHeaderRow();
+        this.grid.getColumns().forEach(column -> {
+            metadata().findProperty(column.getKey()).ifPresent(property -> {
+                var filterComponent = createFilterOfType(property.getField(), ranges);
+                if (filterComponent != null) {
+                    this.filterRow.getCell(column).setComponent(filterComponent);
+                }
+            });
         });
+        return this.filterRow;
+    }
 
-        this.getContent().add(splitLayout);
-        this.getContent().setWidthFull();
-        this.addClassNames("master-detail-view");
+    /**
+     * Creates a download of the current view: the visible columns, sort and filter at the time of the download.
+     * <p>Rows are read by a {@link GridExporter} in chunks of {@link #EXPORT_CHUNK_SIZE} through the same queries as
+     * the grid, each chunk in its own persistence context and without the query cache, and written to the response
+     * directly, so memory use does not grow with the number of rows. Sequential chunks use keyset paging where
+     * possible. Collection values are formatted with the item label generators of the grid.
+     * A non-paging repository exports the items already held by the grid.</p>
+     * @param format the file format
+     * @return the resource, e.g. for an {@link Anchor}
+     */
+    public StreamResource createExportResource(ExportFormat format) {
+        return this.exporter.createResource(format, this::getUI, this::createExportSnapshot);
     }
 
+    /**
+     * Creates a download link for {@link #createExportResource(ExportFormat)}.
+     * @param format the file format
+     * @param text the link text
+     * @return the link, to be added to a layout
+     */
+    public Anchor createExportLink(ExportFormat format, String text) {
+        var anchor = new Anchor(createExportResource(format), text);
+        anchor.getElement().setAttribute("download", true);
+        return anchor;
+    }
 
     /**
-     * Returns the display type of the collection fields.
-     * <p>See {@link CollectionComponentType} for available options.</p>
-     * @return
+     * Takes the state of the grid an export is created from, called while holding the session lock.
      */
-    public CollectionComponentType getDisplayType() {
-        return displayType;
+    private ExportSnapshot<T, ID> createExportSnapshot() {
+        // same order as the columns, see orderColumnsByEntity()
+        var visible = visibleProperties();
+        var declared = metadata().getDeclaredPropertyNames();
+        var properties = Stream.concat(visible.stream().filter(name -> !declared.contains(name)),
+                declared.stream().filter(visible::contains)).toList();
+        var captions = properties.stream().map(property -> {
+            var header = this.grid.getColumnByKey(property).getHeaderText();
+            return header != null && !header.isEmpty() ? header : metadata().getProperty(property).getLabel();
+        }).toList();
+        var labelGenerators = new HashMap<>(this.fieldItemLabelGeneratorMap);
+        var sort = PageRequestHelper.toSort(this.grid.getDataCommunicator().getBackEndSorting());
+        // the ids in the displayed order, the rows are loaded by id in chunks
+        var ids = this.idData ? this.retainedIds(sort) : null;
+        // unique order, so chunks neither overlap nor skip rows
+        sort = this.repositoryAccess.withIdOrder(sort);
+        var items = isInMemory() ? this.grid.getListDataView().getItems().toList() : null;
+        return new ExportSnapshot<>(properties, captions, labelGenerators, sort, this.filter.copy(), items, ids,
+                this.columnProjection, this.collectionBatchFetch);
     }
 
     /**
-     * Get the instance of the underlying {@link Grid}.
-     * @return the instance of Grid.
+     * Adds a footer row with aggregates of the numeric and date columns, computed in the database, see {@link AggregateFooter}.
+     * <p>Number columns, except id and version, show sum, average, minimum and maximum, date columns minimum, maximum and the number of
+     * distinct values. All aggregates are computed by a single JPA Criteria query that applies the active filter.
+     * The result is kept until the filter changes or data is changed through AutoGrid, and is shared through the
+     * {@link QueryCache} if one is active. Use {@link #setColumnAggregates(String, AggregateQuery.Function...)}
+     * to change the aggregates of a column.</p>
+     * @return the footer row
+     * @throws UnsupportedOperationException if no JPA {@code EntityManager} is available
      */
-    public Grid<T> getGrid() {
-        return grid;
+    public FooterRow addAggregateRow() {
+        if (this.aggregates.getRow() == null) {
+            this.aggregates.addRow();
+            this.invalidateAggregates();
+        }
+        return this.aggregates.getRow();
+    }
+
+    /**
+     * Sets the aggregates shown in the footer cell of a column, adding the footer row if needed.
+     * {@link AggregateQuery.Function#SUM SUM} and {@link AggregateQuery.Function#AVG AVG} need a numeric property.
+     * @param property the field name of the source class
+     * @param functions the aggregate functions, none to leave the cell empty
+     */
+    public void setColumnAggregates(String property, AggregateQuery.Function... functions) {
+        metadata().getProperty(property);
+        this.addAggregateRow();
+        this.aggregates.setColumnAggregates(property, List.of(functions));
+        this.invalidateAggregates();
+    }
+
+    /**
+     * Discards the computed aggregates after a data change and shows new ones.
+     */
+    private void invalidateAggregates() {
+        this.aggregates.invalidate();
+        this.updateAggregates();
+    }
+
+    /**
+     * Shows the aggregates of the active filter, querying the database only if the filter or the data has changed.
+     */
+    private void updateAggregates() {
+        this.aggregates.update(this.filter, metrics(), locale());
     }
 
     /**
@@ -131,11 +1159,19 @@ public class AutoGrid<T, ID, R extends CrudRepository<T, ID>> extends Composite<
     }
 
 
+    /**
+     * Returns the cached reflection data of the bean class, shared by all instances.
+     * @return the metadata
+     */
+    private EntityMetadata<T> metadata() {
+        return EntityMetadata.of(this.bean);
+    }
+
     /**
      * Reorder columns based on the field declaration order of the superclass, then actual entity.
      */
     private void orderColumnsByEntity() {
-        var declaredFields = Arrays.stream(this.bean.getDeclaredFields()).map(Field::getName).toList();
+        var declaredFields = metadata().getDeclaredPropertyNames();
 
         // All columns from superclass
         var columnsNotFromEntity = this.grid.getColumns().stream().filter(column -> !declaredFields.contains(column.getKey()));
@@ -147,85 +1183,542 @@ public class AutoGrid<T, ID, R extends CrudRepository<T, ID>> extends Composite<
     }
 
     /**
-     * Iterate over the collection type fields from the entity class and repopulate each field from the given object.
-     * @param fieldHasValueMap the map containing the {@link Field}->{@link Component} mapping
-     * @param formLayout layout component
-     * @param object bean object
+     * Get the spring bean of the given repository class and populate the {@link Grid}.
+     * <p>A {@link PagingAndSortingRepository} is queried lazily with the offset, limit and sort orders
+     * requested by the grid, and {@link CrudRepository#count() count()} for the size.
+     * Any other repository is loaded at once with {@link CrudRepository#findAll() findAll()},
+     * or only its ids with {@link #setIdOnlyRetention(boolean) id-only retention}.</p>
+     * @param repository class definition
+     */
+    private void populateData(Class<R> repository) {
+        if (this.repositoryAccess.isPageable()) {
+            this.installLazyDataProvider(null, -1);
+        } else if (this.idOnlyRetention) {
+            this.installIdDataProvider(metrics().time(AutoGridMetrics.Operation.FETCH, this.bean,
+                    () -> this.repositoryAccess.findAllIds(this.retainedIdsSort)));
+        } else {
+            var collections = collectionsToFetch(visibleProperties());
+            this.installListDataProvider(metrics().time(AutoGridMetrics.Operation.FETCH, this.bean,
+                    () -> this.repositoryAccess.findAllWithCollections(collections)));
+        }
+    }
+
+    /**
+     * Loads the first page and its count, or all items of a non-paging repository, on the executor
+     * and installs the data provider through {@link UI#access(Command)}.
+     * @param ui the UI the component is attached to
      */
-    @SuppressWarnings("unchecked")
-    private void repopulateListFieldComponents(Map<Field, HasListDataView<String, AbstractListDataView<String>>> fieldHasValueMap, FormLayout formLayout, T object) {
-        fieldHasValueMap.forEach((key, value) -> {
-            formLayout.getChildren().filter(component -> component.equals(value)).findFirst().ifPresent(component -> {
-                try {
-                    var val = (Collection<?>) new PropertyDescriptor(key.getName(), this.bean).getReadMethod().invoke(object);
-                    val = val.stream().map(item -> fieldItemLabelGeneratorMap.getOrDefault(key, String::valueOf).apply(item)).toList();
-                    ((HasListDataView<String, AbstractListDataView<String>>) component).setItems((Collection<String>) val);
-                } catch (IllegalAccessException | IntrospectionException | InvocationTargetException e) {
-                    throw new RuntimeException(e);
-                }
-            });
+    private void populateDataAsync(UI ui) {
+        if (this.dataLoaded || this.pendingLoad != null) {
+            return;
+        }
+        // read all mutable state on the UI thread, the executor only sees the snapshot
+        var pageable = this.repositoryAccess.isPageable();
+        var settings = fetchSettings(visibleProperties());
+        var metrics = metrics();
+        var pager = this.keysetPager != null ? new KeysetPager<>(this.repositoryAccess) : null;
+        var firstPage = new OffsetPageRequest(0, this.pageSize, Sort.unsorted());
+        var generation = ++this.loadGeneration;
+        var task = new FutureTask<Void>(() -> {
+            Command install;
+            if (pageable) {
+                var items = this.fetchFromRepository(firstPage, settings, pager, metrics);
+                var count = metrics.time(AutoGridMetrics.Operation.COUNT, this.bean, () -> this.repositoryAccess.count(settings.filter()));
+                install = () -> this.installLazyDataProvider(items, count);
+            } else if (settings.idOnly()) {
+                var ids = metrics.time(AutoGridMetrics.Operation.FETCH, this.bean, () -> this.repositoryAccess.findAllIds(settings.sort()));
+                install = () -> this.installIdDataProvider(ids);
+            } else {
+                var items = metrics.time(AutoGridMetrics.Operation.FETCH, this.bean,
+                        () -> this.repositoryAccess.findAllWithCollections(settings.collections()));
+                install = () -> this.installListDataProvider(items);
+            }
+            if (!Thread.currentThread().isInterrupted()) {
+                ui.access(() -> {
+                    if (generation != this.loadGeneration) {
+                        // cancelled or superseded by a newer load
+                        return;
+                    }
+                    this.pendingLoad = null;
+                    if (!settings.equals(fetchSettings(visibleProperties()))) {
+                        // filter or fetch mode changed while loading
+                        this.populateDataAsync(ui);
+                        return;
+                    }
+                    install.execute();
+                });
+            }
+            return null;
         });
+        this.pendingLoad = task;
+        getExecutor().execute(task);
+    }
+
+    private void cancelPendingLoad() {
+        this.loadGeneration++;
+        if (this.pendingLoad != null) {
+            this.pendingLoad.cancel(true);
+            this.pendingLoad = null;
+        }
+    }
+
+    private void installLazyDataProvider(List<T> firstPage, long firstCount) {
+        this.idData = false;
+        this.retainedIds = null;
+        this.prefetchedPage = firstPage;
+        this.prefetchedCount = firstCount;
+        this.grid.setPageSize(effectivePageSize());
+        this.grid.setItems(
+                query -> this.fetchPage(query).stream().map(this::overlayDirty),
+                query -> (int) Math.min(Integer.MAX_VALUE, this.countItems()));
+        this.dataLoaded = true;
+        this.applyIdentifierProvider();
+    }
+
+    private void installListDataProvider(List<T> items) {
+        this.idData = false;
+        this.retainedIds = null;
+        this.grid.setItems(new ArrayList<>(items));
+        this.measureRowBytes(items);
+        this.dataLoaded = true;
+        this.applyIdentifierProvider();
+        this.updateItemsHeld();
     }
 
     /**
-     * Get the spring bean of the given repository class and call {@link CrudRepository#findAll() findAll()}
-     * to populate the {@link Grid}.
-     * @param repository class definition
+     * Installs a data provider for a non-paging repository that keeps only the ids and loads the visible rows by id.
+     * @param ids the ids in the order of {@link #retainedIdsSort}
      */
-    private void populateData(Class<R> repository) {
-        var instance = SpringContext.getBean(repository);
-        this.grid.setItems(StreamSupport.stream(instance.findAll().spliterator(), false).toList());
+    private void installIdDataProvider(List<ID> ids) {
+        this.idData = true;
+        this.retainedIds = List.copyOf(ids);
+        this.memoryBudget.measureIds(this.retainedIds);
+        this.grid.setPageSize(effectivePageSize());
+        this.grid.setItems(
+                query -> this.fetchRetainedPage(query).stream().map(this::overlayDirty),
+                query -> retainedIds(this.retainedIdsSort).size());
+        this.dataLoaded = true;
+        this.applyIdentifierProvider();
+        this.updateItemsHeld();
     }
 
-    private void createEditorLayout(SplitLayout splitLayout) {
-        var editorLayoutDiv = new Div();
-        editorLayoutDiv.setClassName("editor-layout");
+    private List<T> fetchRetainedPage(Query<T, ?> query) {
+        var ids = retainedIds(PageRequestHelper.toSort(query.getSortOrders()));
+        var from = Math.min(query.getOffset(), ids.size());
+        var page = List.copyOf(ids.subList(from, Math.min(from + query.getLimit(), ids.size())));
+        var collections = collectionsToFetch(visibleProperties());
+        var items = metrics().time(AutoGridMetrics.Operation.FETCH, this.bean, () -> this.repositoryAccess.findAllById(page, collections));
+        this.lastFetchSize = items.size();
+        this.measureRowBytes(items);
+        this.updateItemsHeld();
+        return items;
+    }
+
+    /**
+     * Returns the retained ids in the given order, querying them if the order has changed or rows have been
+     * inserted or deleted.
+     */
+    private List<ID> retainedIds(Sort sort) {
+        if (this.retainedIds == null || !sort.equals(this.retainedIdsSort)) {
+            this.retainedIds = List.copyOf(metrics().time(AutoGridMetrics.Operation.FETCH, this.bean,
+                    () -> this.repositoryAccess.findAllIds(sort)));
+            this.retainedIdsSort = sort;
+            this.memoryBudget.measureIds(this.retainedIds);
+        }
+        return this.retainedIds;
+    }
 
-        var editorDiv = new Div();
-        editorDiv.setClassName("editor");
-        editorLayoutDiv.add(editorDiv);
+    private List<T> fetchPage(Query<T, ?> query) {
+        var prefetched = this.prefetchedPage;
+        this.prefetchedPage = null;
+        if (prefetched != null && query.getOffset() == 0 && query.getSortOrders().isEmpty()
+                && (query.getLimit() <= prefetched.size() || prefetched.size() < this.pageSize)) {
+            return prefetched.subList(0, Math.min(query.getLimit(), prefetched.size()));
+        }
+        var items = this.fetchFromRepository(PageRequestHelper.toPageable(query), visibleProperties());
+        this.lastFetchSize = items.size();
+        this.measureRowBytes(items);
+        this.updateItemsHeld();
+        return items;
+    }
 
-        this.formLayout = new FormLayout();
-        this.binder = new BeanValidationBinder<>(this.bean);
-        this.createFieldsFromBeanFields();
+    private List<T> fetchFromRepository(Pageable pageable, List<String> properties) {
+        return fetchFromRepository(pageable, fetchSettings(properties), this.keysetPager, metrics());
+    }
 
-        editorDiv.add(this.formLayout);
-        this.createButtonLayout(editorLayoutDiv);
-        splitLayout.addToSecondary(editorLayoutDiv);
+    /**
+     * Fetches a page with the given settings only, so it can run on the executor.
+     */
+    private List<T> fetchFromRepository(Pageable pageable, FetchSettings<T> settings, KeysetPager<T, ID> pager, AutoGridMetrics metrics) {
+        if (pager != null) {
+            return metrics.time(AutoGridMetrics.Operation.FETCH, this.bean, () -> pager.fetch(pageable, settings.filter(), settings.collections()));
+        }
+        if (settings.projection()) {
+            return metrics.time(AutoGridMetrics.Operation.FETCH, this.bean,
+                    () -> this.repositoryAccess.fetch(pageable, settings.filter(), settings.properties()));
+        }
+        return metrics.time(AutoGridMetrics.Operation.FETCH, this.bean,
+                () -> this.repositoryAccess.fetchWithCollections(pageable, settings.filter(), settings.collections()));
     }
 
-    private void createFieldsFromBeanFields() {
-        Arrays.stream(this.bean.getDeclaredFields()).forEachOrdered(field -> {
-            var fieldComponent = createFieldOfType(field);
-            if (Collection.class.isAssignableFrom(field.getType())) {
-                //noinspection unchecked
-                this.fieldComponentMap.put(field, (HasListDataView<String, AbstractListDataView<String>>) fieldComponent);
-                this.formLayout.add((Component) fieldComponent);
+    private FetchSettings<T> fetchSettings(List<String> properties) {
+        var keyset = this.keysetPager != null;
+        var projection = !keyset && (this.columnProjection || this.idOnlyRetention && this.repositoryAccess.supportsProjection());
+        return new FetchSettings<>(this.filter.copy(), keyset, projection, this.idOnlyRetention, this.retainedIdsSort,
+                properties, projection ? List.of() : collectionsToFetch(properties));
+    }
+
+    /**
+     * The state a page or all items are fetched with, read on the UI thread.
+     */
+    private record FetchSettings<T>(AutoGridFilter<T> filter, boolean keyset, boolean projection, boolean idOnly,
+                                    Sort sort, List<String> properties, List<String> collections) {
+    }
+
+    /**
+     * Forgets the keyset boundaries and the retained ids, rows have been inserted or deleted.
+     */
+    private void forgetRowPositions() {
+        if (this.keysetPager != null) {
+            this.keysetPager.reset();
+        }
+        this.retainedIds = null;
+    }
+
+    private long countItems() {
+        var prefetched = this.prefetchedCount;
+        this.prefetchedCount = -1;
+        return prefetched >= 0 ? prefetched
+                : metrics().time(AutoGridMetrics.Operation.COUNT, this.bean, () -> this.repositoryAccess.count(this.filter));
+    }
+
+    private void installSelectionListener() {
+        this.grid.addSelectionListener(event -> {
+            var selected = event.getAllSelectedItems();
+            if (this.browseOnly) {
+                return;
+            }
+            if (selected.size() == 1) {
+                this.editItem(selected.iterator().next());
             } else {
-                binder.forField(fieldComponent).bind(field.getName());
-                this.formLayout.add((Component) fieldComponent);
+                this.clearForm();
             }
         });
     }
 
-    private HasValue<?, ?> createFieldOfType(Field field) {
-        if (field.getType().isAssignableFrom(Boolean.class)
-                || field.getType().getTypeName().equals("boolean")) {
-            return new Checkbox(CapitalizeHelper.convertCamelCaseToReadableName(field.getName()));
-        } else if (field.getType().isAssignableFrom(Integer.class)
-                || field.getType().getTypeName().equals("int")) {
-            return new IntegerField(CapitalizeHelper.convertCamelCaseToReadableName(field.getName()));
-        } else if (field.getType().isAssignableFrom(Number.class)) {
-            return new NumberField(CapitalizeHelper.convertCamelCaseToReadableName(field.getName()));
-        } else if (field.getType().isAssignableFrom(Date.class)
-                || field.getType().isAssignableFrom(LocalDate.class)) {
-            return new DatePicker(CapitalizeHelper.convertCamelCaseToReadableName(field.getName()));
-        } else if (field.getType().isAssignableFrom(LocalDateTime.class)) {
-            return new DateTimePicker(CapitalizeHelper.convertCamelCaseToReadableName(field.getName()));
-        } else if (Collection.class.isAssignableFrom(field.getType())) {
-            return new ComboBox<>(CapitalizeHelper.convertCamelCaseToReadableName(field.getName()));
+    private void editItem(T item) {
+        this.ensureEditor();
+        var id = getItemId(item);
+        if (id != null && (this.columnProjection || this.idOnlyRetention || this.changeHandler.hasSharedItems() || this.repositoryAccess.getQueryCache() != null)) {
+            // projected rows are incomplete, cached and broadcast entities are shared between sessions, edit a complete private copy
+            var formCollections = List.copyOf(this.editorForm.getCollectionProperties());
+            item = this.repositoryAccess.findById(id, collectionsToFetch(formCollections)).orElse(item);
+        }
+        this.showInEditor(item);
+    }
+
+    private void showInEditor(T item) {
+        this.ensureEditor();
+        this.editorForm.setItem(item, this.fieldItemLabelGeneratorMap);
+        this.editorForm.getBinder().setReadOnly(isFlushing(item));
+    }
+
+    private boolean isSameItem(T first, T second) {
+        if (first == null || second == null) {
+            return false;
+        }
+        var firstId = getItemId(first);
+        return firstId != null ? firstId.equals(getItemId(second)) : first.equals(second);
+    }
+
+    private boolean isInMemory() {
+        return this.grid.getDataProvider() instanceof ListDataProvider<?>;
+    }
+
+    private void onItemUpdated(T saved) {
+        metrics().time(AutoGridMetrics.Operation.REFRESH, this.bean, () -> this.refreshUpdatedItem(saved));
+    }
+
+    private void refreshUpdatedItem(T saved) {
+        this.replaceItem(saved);
+        if (isSameItem(editedItem(), saved)) {
+            this.editItem(saved);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void replaceItem(T saved) {
+        if (isInMemory() && ((ListDataProvider<T>) this.grid.getDataProvider()).getItems() instanceof List<T> items) {
+            items.replaceAll(item -> isSameItem(item, saved) ? saved : item);
+        }
+        this.grid.getDataProvider().refreshItem(saved);
+    }
+
+    /**
+     * Applies the changes of other instances, see {@link EntityChangeHandler}.
+     */
+    private class ChangeTarget implements EntityChangeHandler.Target<T, ID> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean isLoaded() {
+            return dataLoaded;
+        }
+
+        @Override
+        public boolean isDirty(ID id) {
+            return dirtyItems.containsKey(id);
+        }
+
+        @Override
+        public ID getId(T item) {
+            return getItemId(item);
+        }
+
+        @Override
+        public T getEditedItem() {
+            return editedItem();
+        }
+
+        @Override
+        public void stopEditing() {
+            grid.deselectAll();
+            clearForm();
+        }
+
+        @Override
+        public List<String> getCollectionsToFetch() {
+            return collectionsToFetch(visibleProperties());
+        }
+
+        @Override
+        public void replaceItem(T item) {
+            AutoGrid.this.replaceItem(item);
+        }
+
+        @Override
+        public void reload() {
+            if (isInMemory()) {
+                populateData(repository);
+            } else {
+                forgetRowPositions();
+                grid.getDataProvider().refreshAll();
+            }
+        }
+
+        @Override
+        public void changesApplied() {
+            updateItemsHeld();
+            invalidateAggregates();
+        }
+    }
+
+    private void onItemCreated(T saved) {
+        if (isInMemory()) {
+            metrics().time(AutoGridMetrics.Operation.REFRESH, this.bean, () -> this.grid.getListDataView().addItem(saved));
+        } else {
+            this.forgetRowPositions();
+            this.grid.getDataProvider().refreshAll();
+        }
+        this.updateItemsHeld();
+        this.invalidateAggregates();
+        if (this.multiSelect) {
+            this.grid.deselectAll();
+        }
+        this.grid.select(saved);
+    }
+
+    private void onItemDeleted(T item) {
+        if (isSameItem(editedItem(), item)) {
+            this.grid.deselectAll();
+            this.clearForm();
+        }
+        if (isInMemory()) {
+            metrics().time(AutoGridMetrics.Operation.REFRESH, this.bean, () -> this.grid.getListDataView().removeItem(item));
+        } else {
+            this.forgetRowPositions();
+            this.grid.getDataProvider().refreshAll();
+        }
+        this.updateItemsHeld();
+        this.invalidateAggregates();
+    }
+
+    /**
+     * Creates the editor panel with its buttons. The form is added by {@link #ensureEditor()} when it is needed.
+     */
+    private void createEditorLayout() {
+        var editorLayoutDiv = new Div();
+        editorLayoutDiv.setClassName("editor-layout");
+
+        this.editorDiv.setClassName("editor");
+        editorLayoutDiv.add(this.editorDiv);
+
+        this.createButtonLayout(editorLayoutDiv);
+        this.splitLayout.addToSecondary(editorLayoutDiv);
+    }
+
+    /**
+     * Adds the editor form, taken from the {@link EditorPool} of the UI or built on first use.
+     */
+    private void ensureEditor() {
+        this.editorForm.ensure(getUI(), editorKey(), this::createFormField, metrics());
+    }
+
+    /**
+     * Returns the editor form to the {@link EditorPool} of the UI, so other instances can reuse it.
+     */
+    private void releaseEditor(UI ui) {
+        this.editorForm.release(ui, editorKey());
+    }
+
+    private T editedItem() {
+        return this.editorForm.getItem();
+    }
+
+    /**
+     * Identifies editors with the same fields, see {@link #setCollectionFieldRenderer}.
+     */
+    private EditorKey editorKey() {
+        return new EditorKey(this.bean, Map.copyOf(this.formDisplayTypes));
+    }
+
+    private Component createFormField(EntityMetadata.Property property) {
+        var displayType = this.formDisplayTypes.getOrDefault(property.getName(), CollectionComponentType.COMBOBOX);
+        if (property.isCollection() && !displayType.equals(CollectionComponentType.COMBOBOX)) {
+            var badgeListComponent = new BadgeListComponent(property.getLabel(), displayType);
+            badgeListComponent.setFlexWrap(FlexLayout.FlexWrap.WRAP);
+            return badgeListComponent;
+        }
+        return (Component) createFieldOfType(property);
+    }
+
+    private record EditorKey(Class<?> bean, Map<String, CollectionComponentType> formDisplayTypes) implements Serializable {
+    }
+
+    private HasValue<?, ?> createFieldOfType(EntityMetadata.Property property) {
+        return switch (property.getEditorType()) {
+            case CHECKBOX -> new Checkbox(property.getLabel());
+            case INTEGER -> new IntegerField(property.getLabel());
+            case NUMBER -> new NumberField(property.getLabel());
+            case DATE -> new DatePicker(property.getLabel());
+            case DATE_TIME -> new DateTimePicker(property.getLabel());
+            case COLLECTION -> new ComboBox<>(property.getLabel());
+            case TEXT -> new TextField(property.getLabel());
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Component createFilterOfType(Field field, boolean ranges) {
+        var name = field.getName();
+        var type = ClassUtils.resolvePrimitiveIfNecessary(field.getType());
+        if (type.equals(String.class)) {
+            var textField = createNumberOrTextFilter(new TextField());
+            textField.addValueChangeListener(event -> {
+                this.filter.setText(name, event.getValue());
+                refreshFilter();
+            });
+            return textField;
+        } else if (type.equals(Boolean.class)) {
+            var comboBox = new ComboBox<Boolean>();
+            comboBox.setItems(Boolean.TRUE, Boolean.FALSE);
+            comboBox.setItemLabelGenerator(value -> value ? "Yes" : "No");
+            comboBox.setClearButtonVisible(true);
+            comboBox.setPlaceholder("Filter");
+            comboBox.getElement().setAttribute("theme", "small");
+            comboBox.addValueChangeListener(event -> {
+                this.filter.setEquals(name, event.getValue());
+                refreshFilter();
+            });
+            return comboBox;
+        } else if (Number.class.isAssignableFrom(type)) {
+            var numberType = (Class<Number>) type;
+            var from = createNumberOrTextFilter(new NumberField());
+            if (!ranges) {
+                from.addValueChangeListener(event -> {
+                    this.filter.setEquals(name, toNumber(event.getValue(), numberType));
+                    refreshFilter();
+                });
+                return from;
+            }
+            var to = createNumberOrTextFilter(new NumberField());
+            from.setPlaceholder("Min");
+            to.setPlaceholder("Max");
+            HasValue.ValueChangeListener<HasValue.ValueChangeEvent<Double>> listener = event -> {
+                this.filter.setRange(name, (Comparable) toNumber(from.getValue(), numberType), (Comparable) toNumber(to.getValue(), numberType));
+                refreshFilter();
+            };
+            from.addValueChangeListener(listener);
+            to.addValueChangeListener(listener);
+            return createRangeLayout(from, to);
+        } else if (type.equals(LocalDate.class) || (ranges && (type.equals(LocalDateTime.class) || type.equals(Date.class)))) {
+            var from = createDateFilter();
+            if (!ranges) {
+                from.addValueChangeListener(event -> {
+                    this.filter.setEquals(name, event.getValue());
+                    refreshFilter();
+                });
+                return from;
+            }
+            var to = createDateFilter();
+            from.setPlaceholder("From");
+            to.setPlaceholder("To");
+            HasValue.ValueChangeListener<HasValue.ValueChangeEvent<LocalDate>> listener = event -> {
+                var start = from.getValue();
+                var end = to.getValue();
+                if (type.equals(LocalDate.class)) {
+                    this.filter.setRange(name, start, end);
+                } else {
+                    var startTime = start != null ? start.atStartOfDay() : null;
+                    var endTime = end != null ? end.atTime(LocalTime.MAX) : null;
+                    if (type.equals(LocalDateTime.class)) {
+                        this.filter.setRange(name, startTime, endTime);
+                    } else {
+                        this.filter.setRange(name, toDate(startTime), toDate(endTime));
+                    }
+                }
+                refreshFilter();
+            };
+            from.addValueChangeListener(listener);
+            to.addValueChangeListener(listener);
+            return createRangeLayout(from, to);
         }
-        return new TextField(CapitalizeHelper.convertCamelCaseToReadableName(field.getName()));
+        return null;
+    }
+
+    private <C extends HasSize & HasValueChangeMode> C createNumberOrTextFilter(C field) {
+        field.setValueChangeMode(ValueChangeMode.LAZY);
+        field.setValueChangeTimeout(this.filterDebounceTimeout);
+        field.getElement().setProperty("placeholder", "Filter");
+        field.getElement().setProperty("clearButtonVisible", true);
+        field.getElement().setAttribute("theme", "small");
+        field.setWidthFull();
+        return field;
+    }
+
+    private DatePicker createDateFilter() {
+        var datePicker = new DatePicker();
+        datePicker.setClearButtonVisible(true);
+        datePicker.getElement().setAttribute("theme", "small");
+        datePicker.setWidthFull();
+        return datePicker;
+    }
+
+    private static HorizontalLayout createRangeLayout(Component from, Component to) {
+        var layout = new HorizontalLayout(from, to);
+        layout.setSpacing(false);
+        layout.addClassNames(LumoUtility.Gap.XSMALL);
+        layout.setWidthFull();
+        return layout;
+    }
+
+    private static Number toNumber(Double value, Class<Number> type) {
+        return value != null ? NumberUtils.convertNumberToTargetClass(value, type) : null;
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return dateTime != null ? Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant()) : null;
     }
 
     private void createButtonLayout(Div editorLayoutDiv) {
@@ -234,36 +1727,65 @@ public class AutoGrid<T, ID, R extends CrudRepository<T, ID>> extends Composite<
         var cancel = new Button("Cancel", event -> clearForm());
         cancel.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
         var save = new Button("Save", event -> {
+            if (editedItem() == null) {
+                return;
+            }
+            if (isFlushing(editedItem())) {
+                Notification.show("This row is being saved, please wait");
+                return;
+            }
             try {
-                this.binder.writeBean(this.binder.getBean());
-                SpringContext.getBean(this.repository).save(this.binder.getBean());
-                clearForm();
-                refreshGrid();
-                Notification.show("Data updated");
+                this.editorForm.getBinder().writeBean(editedItem());
+                if (this.bufferedEditing) {
+                    markDirty(editedItem());
+                } else {
+                    saveItem(editedItem());
+                    Notification.show("Data updated");
+                }
             } catch (ValidationException e) {
-                throw new RuntimeException(e);
+                Notification.show("Please check the highlighted fields").addThemeVariants(NotificationVariant.LUMO_ERROR);
             }
         });
         save.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
-        buttonLayout.add(save, cancel);
+        var create = new Button("New", event -> editNewItem());
+        create.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        var delete = new Button("Delete", event -> {
+            if (editedItem() != null && isFlushing(editedItem())) {
+                Notification.show("This row is being saved, please wait");
+            } else if (editedItem() != null && getItemId(editedItem()) != null) {
+                deleteItem(editedItem());
+                Notification.show("Data deleted");
+            }
+        });
+        delete.addThemeVariants(ButtonVariant.LUMO_TERTIARY, ButtonVariant.LUMO_ERROR);
+        this.flushButton = new Button("Save all", event -> flush());
+        this.flushButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+        this.flushButton.setVisible(this.bufferedEditing);
+        this.bulkEditButton = new Button("Bulk edit", event -> openBulkEditDialog());
+        this.bulkEditButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        this.bulkEditButton.setVisible(this.multiSelect);
+        buttonLayout.add(save, this.flushButton, create, delete, this.bulkEditButton, cancel);
         editorLayoutDiv.add(buttonLayout);
     }
 
-    private void clearForm() {
-        this.binder.setBean(null);
-        this.binder.refreshFields();
-        this.fieldComponentMap.values().forEach(HasListDataView::setItems);
+    /**
+     * Opens a dialog that sets one field on the selected rows or all rows matching the filter, or deletes them,
+     * see {@link BulkActions#createDialog}.
+     */
+    private void openBulkEditDialog() {
+        this.bulkActions.createDialog(this.grid.getSelectedItems().size(), selectedIds().size(), this.filter,
+                this::createFieldOfType, this::bulkUpdate, this::bulkDelete).open();
     }
 
-    private void refreshGrid() {
-        this.grid.select(null);
-        this.grid.getDataProvider().refreshAll();
+    private void clearForm() {
+        this.editorForm.clear();
     }
 
     /**
      * Create a field renderer for a collection field of the entity class.
      * Default is {@link CollectionComponentType#COMBOBOX} and creates a {@link ComboBox}
      * and applies the {@link ItemLabelGenerator} to its items.
+     * Client-side types like {@link CollectionComponentType#LIT_BADGE} render the cells with a {@link LitRenderer}.
      * @param property field name of the class
      * @param displayType see {@link CollectionComponentType} for available options
      * @param itemLabelGenerator the item label generator for the contents
@@ -271,23 +1793,38 @@ public class AutoGrid<T, ID, R extends CrudRepository<T, ID>> extends Composite<
      */
     public Grid.Column<T> setCollectionFieldRenderer(String property, CollectionComponentType displayType, ItemLabelGenerator<Object> itemLabelGenerator) {
         this.displayType = displayType;
-        var optField = fieldComponentMap.keySet().stream().filter(key -> key.getName().equals(property)).findFirst();
+        var optField = metadata().findProperty(property).filter(EntityMetadata.Property::isCollection).map(EntityMetadata.Property::getName);
         if (optField.isPresent()) {
             var field = optField.get();
+            var metadataProperty = metadata().getProperty(property);
                 Grid.Column<T> column;
                 if (!displayType.equals(CollectionComponentType.COMBOBOX)) {
-                    int index = this.formLayout.getChildren().toList().indexOf((Component) fieldComponentMap.get(field));
-                    this.formLayout.remove((Component) this.fieldComponentMap.get(field));
-                    var badgeListComponent = new BadgeListComponent(CapitalizeHelper.convertCamelCaseToReadableName(field.getName()), displayType);
+                    this.formDisplayTypes.put(property, displayType);
+                }
+                if (!displayType.equals(CollectionComponentType.COMBOBOX) && this.editorForm.getCollectionProperties().contains(field)) {
+                    var badgeListComponent = new BadgeListComponent(metadataProperty.getLabel(), displayType);
                     badgeListComponent.setFlexWrap(FlexLayout.FlexWrap.WRAP);
-                    this.fieldComponentMap.replace(field, this.fieldComponentMap.get(field), badgeListComponent);
-                    this.formLayout.addComponentAtIndex(index, (Component) fieldComponentMap.get(field));
+                    this.editorForm.replaceCollectionField(field, badgeListComponent);
                 }
                 this.fieldItemLabelGeneratorMap.put(field, itemLabelGenerator);
+                if (displayType.isClientSide() || this.idOnlyRetention) {
+                    return this.setRendererForColumn(property, LitRenderer.<T>of(
+                                    "<div class=\"flex gap-s overflow-scroll\" style=\"width: 200px\">"
+                                    + "${item.labels.map(label => html`<span theme=\"" + displayType.getType() + "\">${label}</span>`)}"
+                                    + "</div>")
+                            .withProperty("labels", item -> {
+                                metrics().cellRendered(this.bean);
+                                return ((Collection<?>) metadataProperty.getValue(item)).stream()
+                                        .map(i -> fieldItemLabelGeneratorMap.getOrDefault(field, String::valueOf).apply(i))
+                                        .toList();
+                            }));
+                }
                 column = this.setRendererForColumn(property, new ComponentRenderer<>((ValueProvider<T, Component>) item -> {
+                    metrics().cellRendered(this.bean);
+                    metrics().componentCreated(this.bean);
                     Component fieldOfType;
                     if (this.displayType.equals(CollectionComponentType.COMBOBOX)) {
-                        fieldOfType = (Component) createFieldOfType(field);
+                        fieldOfType = (Component) createFieldOfType(metadataProperty);
                         fieldOfType.getElement().setProperty("label", "");
                         fieldOfType.getElement().setAttribute("theme", "small");
                     } else {
@@ -295,15 +1832,11 @@ public class AutoGrid<T, ID, R extends CrudRepository<T, ID>> extends Composite<
                         fieldOfType.setClassName(LumoUtility.Overflow.SCROLL);
                         fieldOfType.getStyle().setWidth("200px");
                     }
-                    try {
-                        var val = (Collection<?>) new PropertyDescriptor(property, this.bean).getReadMethod().invoke(item);
-                        val = val.stream().map(i -> fieldItemLabelGeneratorMap.getOrDefault(field, String::valueOf).apply(i)).toList();
-                        //noinspection unchecked
-                        ((HasListDataView<String, AbstractListDataView<String>>) fieldOfType).setItems((Collection<String>) val);
-                        return (Component) fieldOfType;
-                    } catch (IllegalAccessException | IntrospectionException | InvocationTargetException e) {
-                        throw new RuntimeException(e);
-                    }
+                    var val = (Collection<?>) metadataProperty.getValue(item);
+                    val = val.stream().map(i -> fieldItemLabelGeneratorMap.getOrDefault(field, String::valueOf).apply(i)).toList();
+                    //noinspection unchecked
+                    ((HasListDataView<String, AbstractListDataView<String>>) fieldOfType).setItems((Collection<String>) val);
+                    return fieldOfType;
                 }));
                 return column;
         }
@@ -392,21 +1925,44 @@ public class AutoGrid<T, ID, R extends CrudRepository<T, ID>> extends Composite<
         }
     }
 
+    /**
+     * Display types of collection fields.
+     * <p>The {@code LIT_*} types render the grid cells as badges on the client with a {@link LitRenderer},
+     * sending only the labels as JSON array and creating no server-side components per cell.</p>
+     */
     public enum CollectionComponentType {
         COMBOBOX(""),
         BADGE("badge"),
         BADGE_SUCCESS("badge success"),
         BADGE_ERROR("badge error"),
-        BADGE_CONTRAST("badge contrast");
+        BADGE_CONTRAST("badge contrast"),
+        LIT_BADGE("badge", true),
+        LIT_BADGE_SUCCESS("badge success", true),
+        LIT_BADGE_ERROR("badge error", true),
+        LIT_BADGE_CONTRAST("badge contrast", true);
 
         private final String type;
+        private final boolean clientSide;
 
         CollectionComponentType(String type) {
+            this(type, false);
+        }
+
+        CollectionComponentType(String type, boolean clientSide) {
             this.type = type;
+            this.clientSide = clientSide;
         }
 
         public String getType() {
             return type;
         }
+
+        /**
+         * Returns true if the grid cells are rendered on the client without server-side components.
+         * @return true for the {@code LIT_*} types
+         */
+        public boolean isClientSide() {
+            return clientSide;
+        }
     }
 }
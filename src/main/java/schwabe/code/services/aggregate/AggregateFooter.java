@@ -0,0 +1,143 @@
+package schwabe.code.services.aggregate;
+
+import com.vaadin.flow.component.grid.FooterRow;
+import com.vaadin.flow.component.grid.Grid;
+import org.springframework.util.ClassUtils;
+import schwabe.code.services.data.AggregateQuery;
+import schwabe.code.services.data.AutoGridFilter;
+import schwabe.code.services.data.RepositoryAccess;
+import schwabe.code.services.metrics.AutoGridMetrics;
+import schwabe.code.services.util.EntityMetadata;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.text.NumberFormat;
+import java.time.temporal.Temporal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Shows aggregates of the grid columns in a footer row, computed by a single {@link AggregateQuery} for all columns.
+ * <p>The values are kept until the filter changes or they are {@link #invalidate() invalidated} after a data change.</p>
+ * @param <T> The java bean type
+ */
+public class AggregateFooter<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Class<T> bean;
+    private final Grid<T> grid;
+    private final RepositoryAccess<T, ?> repositoryAccess;
+    private final Map<String, List<AggregateQuery.Function>> columnAggregates = new LinkedHashMap<>();
+    private FooterRow row;
+    private Map<AggregateQuery.Aggregate, Object> values;
+    private AutoGridFilter<T> valuesFilter;
+
+    public AggregateFooter(Class<T> bean, Grid<T> grid, RepositoryAccess<T, ?> repositoryAccess) {
+        this.bean = bean;
+        this.grid = grid;
+        this.repositoryAccess = repositoryAccess;
+    }
+
+    /**
+     * Returns the footer row.
+     * @return the row, null until {@link #addRow()} has been called
+     */
+    public FooterRow getRow() {
+        return row;
+    }
+
+    /**
+     * Appends the footer row with the default aggregates of the columns: sum, average, minimum and maximum for number
+     * columns except id and version, minimum, maximum and the number of distinct values for date columns.
+     * @return the footer row, the existing one if it has been added before
+     * @throws UnsupportedOperationException if no JPA {@code EntityManager} is available
+     */
+    public FooterRow addRow() {
+        if (this.row != null) {
+            return this.row;
+        }
+        if (!this.repositoryAccess.supportsAggregates()) {
+            throw new UnsupportedOperationException("Aggregates need a JPA EntityManager");
+        }
+        this.row = this.grid.appendFooterRow();
+        this.grid.getColumns().forEach(column -> metadata().findProperty(column.getKey()).ifPresent(property -> {
+            var functions = defaultAggregates(property);
+            if (!functions.isEmpty()) {
+                this.columnAggregates.put(property.getName(), functions);
+            }
+        }));
+        return this.row;
+    }
+
+    /**
+     * Sets the aggregates shown in the footer cell of a column.
+     * @param property the field name of the source class
+     * @param functions the aggregate functions, empty to leave the cell empty
+     */
+    public void setColumnAggregates(String property, List<AggregateQuery.Function> functions) {
+        if (functions.isEmpty()) {
+            this.columnAggregates.remove(property);
+        } else {
+            this.columnAggregates.put(property, List.copyOf(functions));
+        }
+    }
+
+    /**
+     * Discards the computed values, e.g. after a data change, so the next {@link #update} queries them again.
+     */
+    public void invalidate() {
+        this.values = null;
+    }
+
+    /**
+     * Shows the aggregates of the filter, querying the database only if the filter has changed or the values have
+     * been invalidated. Does nothing until the row has been added.
+     * @param filter the active filter
+     * @param metrics the metrics to record the query in
+     * @param locale the locale to format numbers with
+     */
+    public void update(AutoGridFilter<T> filter, AutoGridMetrics metrics, Locale locale) {
+        if (this.row == null) {
+            return;
+        }
+        if (this.values == null || !filter.equals(this.valuesFilter)) {
+            var aggregates = new ArrayList<AggregateQuery.Aggregate>();
+            this.columnAggregates.forEach((property, functions) ->
+                    functions.forEach(function -> aggregates.add(new AggregateQuery.Aggregate(property, function))));
+            this.values = metrics.time(AutoGridMetrics.Operation.AGGREGATE, this.bean,
+                    () -> this.repositoryAccess.aggregate(filter, aggregates));
+            this.valuesFilter = filter.copy();
+        }
+        var numberFormat = NumberFormat.getNumberInstance(locale);
+        numberFormat.setMaximumFractionDigits(2);
+        this.grid.getColumns().forEach(column -> {
+            var functions = this.columnAggregates.getOrDefault(column.getKey(), List.of());
+            this.row.getCell(column).setText(functions.stream().map(function -> {
+                var value = this.values.get(new AggregateQuery.Aggregate(column.getKey(), function));
+                var text = value == null ? "-" : value instanceof Number number ? numberFormat.format(number) : value.toString();
+                return function.getLabel() + ": " + text;
+            }).collect(Collectors.joining(", ")));
+        });
+    }
+
+    private static List<AggregateQuery.Function> defaultAggregates(EntityMetadata.Property property) {
+        if (property.isId() || property.isVersion()) {
+            return List.of();
+        }
+        var type = ClassUtils.resolvePrimitiveIfNecessary(property.getType());
+        if (Number.class.isAssignableFrom(type)) {
+            return List.of(AggregateQuery.Function.SUM, AggregateQuery.Function.AVG,
+                    AggregateQuery.Function.MIN, AggregateQuery.Function.MAX);
+        } else if (Temporal.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)) {
+            return List.of(AggregateQuery.Function.MIN, AggregateQuery.Function.MAX,
+                    AggregateQuery.Function.COUNT_DISTINCT);
+        }
+        return List.of();
+    }
+
+    private EntityMetadata<T> metadata() {
+        return EntityMetadata.of(this.bean);
+    }
+}
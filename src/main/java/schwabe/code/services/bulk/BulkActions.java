@@ -0,0 +1,270 @@
+package schwabe.code.services.bulk;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
+import com.vaadin.flow.component.dialog.Dialog;
+import com.vaadin.flow.component.formlayout.FormLayout;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.data.binder.BeanValidationBinder;
+import com.vaadin.flow.data.binder.ValidationException;
+import com.vaadin.flow.data.binder.ValidationResult;
+import com.vaadin.flow.data.binder.ValueContext;
+import com.vaadin.flow.data.validator.BeanValidator;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializableRunnable;
+import com.vaadin.flow.function.SerializableSupplier;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.StringUtils;
+import schwabe.code.services.data.AutoGridFilter;
+import schwabe.code.services.data.BulkOperation;
+import schwabe.code.services.data.RepositoryAccess;
+import schwabe.code.services.metrics.AutoGridMetrics;
+import schwabe.code.services.util.EntityMetadata;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the bulk updates and deletes of an AutoGrid with set-based statements, see {@link BulkOperation},
+ * and builds the dialog that starts them.
+ * @param <T> The java bean type
+ * @param <ID> The type of the entity id
+ */
+public class BulkActions<T, ID> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Class<T> bean;
+    private final RepositoryAccess<T, ID> repositoryAccess;
+
+    public BulkActions(Class<T> bean, RepositoryAccess<T, ID> repositoryAccess) {
+        this.bean = bean;
+        this.repositoryAccess = repositoryAccess;
+    }
+
+    /**
+     * Checks that bulk operations are possible.
+     * @throws UnsupportedOperationException if no JPA {@code EntityManager}, {@code PlatformTransactionManager}
+     * or id property is available
+     */
+    public void checkSupported() {
+        if (!this.repositoryAccess.supportsBulkOperations()) {
+            throw new UnsupportedOperationException(this.bean.getName()
+                    + " needs a JPA EntityManager, a PlatformTransactionManager and an id property for bulk operations");
+        }
+    }
+
+    /**
+     * Checks that the values can be set by a bulk update and satisfy the bean validation constraints of their properties.
+     * @param values the new value per property name
+     * @param locale the locale of the error messages
+     * @throws ValidationException if a value violates a constraint of its property
+     * @throws IllegalArgumentException if a property cannot be set or a value has the wrong type
+     * @throws UnsupportedOperationException if bulk operations are not {@link #checkSupported() supported}
+     */
+    public void checkValues(Map<String, Object> values, Locale locale) throws ValidationException {
+        checkSupported();
+        this.repositoryAccess.checkBulkValues(values);
+        var context = new ValueContext(locale);
+        var errors = new ArrayList<ValidationResult>();
+        values.forEach((name, value) -> {
+            var result = new BeanValidator(this.bean, name).apply(value, context);
+            if (result.isError()) {
+                errors.add(ValidationResult.error(EntityMetadata.of(this.bean).getProperty(name).getLabel() + ": " + result.getErrorMessage()));
+            }
+        });
+        if (!errors.isEmpty()) {
+            throw new ValidationException(List.of(), errors);
+        }
+    }
+
+    /**
+     * Sets the values on the rows with the given ids, or on all rows matching the filter.
+     * @param values the new value per property name, see {@link #checkValues(Map, Locale)}
+     * @param allMatchingFilter true to update all rows matching the filter instead of the rows with the ids
+     * @param filter the active filter
+     * @param ids the ids of the selected rows
+     * @param metrics the metrics to record the statements in
+     * @return the number of updated rows
+     */
+    public int update(Map<String, Object> values, boolean allMatchingFilter, AutoGridFilter<T> filter, List<ID> ids,
+                      AutoGridMetrics metrics) {
+        return metrics.time(AutoGridMetrics.Operation.SAVE, this.bean, () -> allMatchingFilter
+                ? this.repositoryAccess.bulkUpdateMatching(values, filter)
+                : this.repositoryAccess.bulkUpdateByIds(values, ids));
+    }
+
+    /**
+     * Deletes the rows with the given ids, or all rows matching the filter.
+     * @param allMatchingFilter true to delete all rows matching the filter instead of the rows with the ids
+     * @param filter the active filter
+     * @param ids the ids of the selected rows
+     * @param metrics the metrics to record the statements in
+     * @return the number of deleted rows
+     */
+    public int delete(boolean allMatchingFilter, AutoGridFilter<T> filter, List<ID> ids, AutoGridMetrics metrics) {
+        return metrics.time(AutoGridMetrics.Operation.SAVE, this.bean, () -> allMatchingFilter
+                ? this.repositoryAccess.bulkDeleteMatching(filter)
+                : this.repositoryAccess.bulkDeleteByIds(ids));
+    }
+
+    /**
+     * Creates a dialog that sets one field on the selected rows or all rows matching the filter, or deletes them.
+     * <p>The value is converted and validated by a binder for a scratch instance of the bean. The matching rows are
+     * counted when the checkbox is ticked. Applying and deleting ask for confirmation with the number of affected
+     * rows and are refused for all matching rows while the filter is empty, see {@link #confirm}.</p>
+     * @param selectedRows the number of selected rows
+     * @param selectedIds the number of selected rows with an id, which an update or delete affects
+     * @param filter the active filter
+     * @param fieldFactory creates the value field of a property
+     * @param update runs the update, e.g. {@code AutoGrid::bulkUpdate}
+     * @param delete runs the delete with the given all matching flag, e.g. {@code AutoGrid::bulkDelete}
+     * @return the dialog, to be opened
+     */
+    public Dialog createDialog(int selectedRows, int selectedIds, AutoGridFilter<T> filter,
+                               SerializableFunction<EntityMetadata.Property, HasValue<?, ?>> fieldFactory,
+                               Update update, SerializableFunction<Boolean, Integer> delete) {
+        var dialog = new Dialog();
+        dialog.setHeaderTitle(selectedRows + " rows selected");
+        var matching = new Checkbox("All rows matching the filter");
+        var matchingCount = new AtomicLong(-1);
+        SerializableSupplier<Long> affectedRows = () -> {
+            if (!matching.getValue()) {
+                return (long) selectedIds;
+            }
+            if (matchingCount.get() < 0) {
+                matchingCount.set(this.repositoryAccess.count(filter));
+                matching.setLabel("All " + matchingCount.get() + " rows matching the filter");
+            }
+            return matchingCount.get();
+        };
+        matching.addValueChangeListener(event -> {
+            if (event.getValue()) {
+                affectedRows.get();
+            }
+        });
+        var propertySelect = new ComboBox<EntityMetadata.Property>("Field");
+        propertySelect.setItems(EntityMetadata.of(this.bean).getDeclaredProperties().stream()
+                .filter(property -> property.isWritable() && !property.isId() && !property.isVersion() && !property.isCollection())
+                .toList());
+        propertySelect.setItemLabelGenerator(EntityMetadata.Property::getLabel);
+        var valueLayout = new Div();
+        var valueBinder = new AtomicReference<BeanValidationBinder<T>>();
+        propertySelect.addValueChangeListener(event -> {
+            valueLayout.removeAll();
+            valueBinder.set(null);
+            if (event.getValue() != null) {
+                var field = fieldFactory.apply(event.getValue());
+                var binder = new BeanValidationBinder<>(this.bean);
+                binder.forField(field).bind(event.getValue().getName());
+                valueLayout.add((Component) field);
+                valueBinder.set(binder);
+            }
+        });
+        var apply = new Button("Apply", event -> {
+            var property = propertySelect.getValue();
+            if (property == null) {
+                return;
+            }
+            var scratch = BeanUtils.instantiateClass(this.bean);
+            try {
+                valueBinder.get().writeBean(scratch);
+            } catch (ValidationException e) {
+                Notification.show("Please check the highlighted fields").addThemeVariants(NotificationVariant.LUMO_ERROR);
+                return;
+            }
+            var values = Collections.singletonMap(property.getName(), property.getValue(scratch));
+            var allMatching = matching.getValue();
+            confirm("update", allMatching, filter, affectedRows.get(), () -> {
+                try {
+                    var updated = update.apply(values, allMatching);
+                    dialog.close();
+                    Notification.show(updated + " rows updated");
+                } catch (ValidationException e) {
+                    Notification.show(e.getBeanValidationErrors().stream().map(ValidationResult::getErrorMessage)
+                            .collect(Collectors.joining(", "))).addThemeVariants(NotificationVariant.LUMO_ERROR);
+                } catch (IllegalArgumentException e) {
+                    Notification.show(e.getMessage()).addThemeVariants(NotificationVariant.LUMO_ERROR);
+                }
+            });
+        });
+        apply.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+        var deleteButton = new Button("Delete", event -> {
+            var allMatching = matching.getValue();
+            confirm("delete", allMatching, filter, affectedRows.get(), () -> {
+                var deleted = delete.apply(allMatching);
+                dialog.close();
+                Notification.show(deleted + " rows deleted");
+            });
+        });
+        deleteButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY, ButtonVariant.LUMO_ERROR);
+        var cancel = new Button("Cancel", event -> dialog.close());
+        cancel.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        dialog.add(new FormLayout(matching, propertySelect, valueLayout));
+        dialog.getFooter().add(deleteButton, cancel, apply);
+        return dialog;
+    }
+
+    /**
+     * Asks for confirmation with the number of affected rows before running a bulk action.
+     * <p>All rows matching an empty filter are refused, so the whole table is never changed by accident,
+     * and nothing happens without affected rows.</p>
+     * @param action the action, {@code "update"} or {@code "delete"}
+     * @param allMatchingFilter true if the action affects all rows matching the filter
+     * @param filter the active filter
+     * @param affected the number of affected rows
+     * @param run runs the action when confirmed
+     * @return the opened confirmation, null if the action has been refused
+     */
+    ConfirmDialog confirm(String action, boolean allMatchingFilter, AutoGridFilter<T> filter, long affected,
+                          SerializableRunnable run) {
+        if (allMatchingFilter && filter.isEmpty()) {
+            Notification.show("Set a filter or select the rows to " + action).addThemeVariants(NotificationVariant.LUMO_ERROR);
+            return null;
+        }
+        if (affected == 0) {
+            Notification.show("No rows to " + action);
+            return null;
+        }
+        var label = StringUtils.capitalize(action);
+        var confirm = new ConfirmDialog(label + " " + affected + " rows?",
+                "delete".equals(action) ? "The rows are deleted permanently." : "The field is set on all of them.",
+                label, confirmed -> run.run());
+        confirm.setConfirmButtonTheme("delete".equals(action) ? "error primary" : "primary");
+        confirm.setCancelable(true);
+        confirm.open();
+        return confirm;
+    }
+
+    /**
+     * Runs a bulk update of the dialog.
+     */
+    @FunctionalInterface
+    public interface Update extends Serializable {
+
+        /**
+         * Sets the values on the selected rows or all rows matching the filter.
+         * @param values the new value per property name
+         * @param allMatchingFilter true to update all rows matching the filter
+         * @return the number of updated rows
+         * @throws ValidationException if a value violates a constraint of its property
+         */
+        int apply(Map<String, Object> values, boolean allMatchingFilter) throws ValidationException;
+    }
+}
@@ -0,0 +1,84 @@
+package schwabe.code.services.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-memory {@link QueryCache} with least-recently-used eviction and a time-to-live per entry.
+ * <p>Queries run outside the lock. A result loaded while its entity class was invalidated is not stored.</p>
+ */
+public class LruQueryCache implements QueryCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<QueryCacheKey, Entry> entries;
+    private final Map<Class<?>, Long> generations = new HashMap<>();
+    private long epoch;
+
+    /**
+     * Creates a new cache.
+     * @param maxSize the maximum number of cached results, must be greater than zero
+     * @param ttl the time after which a result expires
+     */
+    public LruQueryCache(int maxSize, Duration ttl) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be greater than zero");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QueryCacheKey, Entry> eldest) {
+                return size() > LruQueryCache.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> V get(QueryCacheKey key, Supplier<V> loader) {
+        long generation;
+        long currentEpoch;
+        synchronized (this) {
+            var entry = this.entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                return (V) entry.value;
+            }
+            generation = this.generations.getOrDefault(key.entityType(), 0L);
+            currentEpoch = this.epoch;
+        }
+        var value = loader.get();
+        synchronized (this) {
+            if (currentEpoch == this.epoch && generation == this.generations.getOrDefault(key.entityType(), 0L)) {
+                this.entries.put(key, new Entry(value, System.nanoTime() + this.ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void invalidate(Class<?> entityType) {
+        this.generations.merge(entityType, 1L, Long::sum);
+        this.entries.keySet().removeIf(key -> key.entityType().equals(entityType));
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.epoch++;
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the number of cached results, including expired ones not evicted yet.
+     * @return the size
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+}
@@ -0,0 +1,33 @@
+package schwabe.code.services.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * A cache for the page and count results of AutoGrid queries, shared by all instances and sessions.
+ * <p>Register an implementation as Spring bean to enable it for every AutoGrid, or set it per instance.
+ * {@link LruQueryCache} is a size and TTL bounded in-memory implementation,
+ * {@link SpringCacheManagerQueryCache} delegates to a Spring {@link org.springframework.cache.CacheManager}
+ * such as Caffeine.</p>
+ * <p>Cached entities are shared between sessions and need to be treated as read-only.</p>
+ */
+public interface QueryCache {
+
+    /**
+     * Returns the cached value of the key, or loads and caches it.
+     * @param key the query key
+     * @param loader the function running the query on a cache miss
+     * @return the cached or loaded value
+     */
+    <V> V get(QueryCacheKey key, Supplier<V> loader);
+
+    /**
+     * Removes all cached results of the given entity class, called after it has been changed.
+     * @param entityType the entity class
+     */
+    void invalidate(Class<?> entityType);
+
+    /**
+     * Removes all cached results.
+     */
+    void clear();
+}
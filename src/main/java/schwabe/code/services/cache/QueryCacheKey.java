@@ -0,0 +1,84 @@
+package schwabe.code.services.cache;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.data.AutoGridFilter;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Identifies a cached query result.
+ * @param entityType the queried entity class
+ * @param type the kind of result, e.g. {@code page} or {@code count}
+ * @param filter a snapshot of the active filter
+ * @param sort the sort, {@link Sort#unsorted()} for counts
+ * @param offset the offset of the first row, 0 for counts
+ * @param limit the number of rows, 0 for counts
+ */
+public record QueryCacheKey(Class<?> entityType, String type, AutoGridFilter<?> filter, Sort sort, long offset, int limit)
+        implements Serializable {
+
+    /**
+     * Creates the key of a page query.
+     * @param entityType the queried entity class
+     * @param filter the active filter, copied
+     * @param pageable the requested rows and sort
+     * @return the key
+     */
+    public static QueryCacheKey page(Class<?> entityType, AutoGridFilter<?> filter, Pageable pageable) {
+        return new QueryCacheKey(entityType, "page", snapshot(filter), pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+    }
+
+    /**
+     * Creates the key of a page query selecting only the given properties.
+     * @param entityType the queried entity class
+     * @param filter the active filter, copied
+     * @param pageable the requested rows and sort
+     * @param properties the selected properties
+     * @return the key
+     */
+    public static QueryCacheKey page(Class<?> entityType, AutoGridFilter<?> filter, Pageable pageable, Collection<String> properties) {
+        return new QueryCacheKey(entityType, "page:" + String.join(",", new TreeSet<>(properties)), snapshot(filter),
+                pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+    }
+
+    /**
+     * Creates the key of a page query that initializes the given collections.
+     * @param entityType the queried entity class
+     * @param filter the active filter, copied
+     * @param pageable the requested rows and sort
+     * @param collections the initialized collection properties
+     * @return the key
+     */
+    public static QueryCacheKey pageWithCollections(Class<?> entityType, AutoGridFilter<?> filter, Pageable pageable, Collection<String> collections) {
+        return new QueryCacheKey(entityType, "graph:" + String.join(",", new TreeSet<>(collections)), snapshot(filter),
+                pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+    }
+
+    /**
+     * Creates the key of an aggregate query.
+     * @param entityType the queried entity class
+     * @param filter the active filter, copied
+     * @param aggregates the computed aggregates, e.g. {@code SUM(amount)}
+     * @return the key
+     */
+    public static QueryCacheKey aggregate(Class<?> entityType, AutoGridFilter<?> filter, Collection<?> aggregates) {
+        return new QueryCacheKey(entityType, "aggregate:" + aggregates, snapshot(filter), Sort.unsorted(), 0, 0);
+    }
+
+    /**
+     * Creates the key of a count query.
+     * @param entityType the queried entity class
+     * @param filter the active filter, copied
+     * @return the key
+     */
+    public static QueryCacheKey count(Class<?> entityType, AutoGridFilter<?> filter) {
+        return new QueryCacheKey(entityType, "count", snapshot(filter), Sort.unsorted(), 0, 0);
+    }
+
+    private static AutoGridFilter<?> snapshot(AutoGridFilter<?> filter) {
+        return filter != null ? filter.copy() : new AutoGridFilter<>();
+    }
+}
@@ -0,0 +1,88 @@
+package schwabe.code.services.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@link QueryCache} backed by a Spring {@link CacheManager}, e.g. a {@code CaffeineCacheManager}.
+ * <p>Each entity class uses its own cache named {@code <prefix><entity class name>},
+ * so eviction and expiry are configured in the cache manager. Queries run without a lock, a result loaded while its
+ * entity class was invalidated by this instance is evicted again.</p>
+ */
+public class SpringCacheManagerQueryCache implements QueryCache {
+
+    /**
+     * Default prefix of the cache names.
+     */
+    public static final String DEFAULT_PREFIX = "auto-grid:";
+
+    private final CacheManager cacheManager;
+    private final String prefix;
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+
+    public SpringCacheManagerQueryCache(CacheManager cacheManager) {
+        this(cacheManager, DEFAULT_PREFIX);
+    }
+
+    public SpringCacheManagerQueryCache(CacheManager cacheManager, String prefix) {
+        this.cacheManager = Objects.requireNonNull(cacheManager);
+        this.prefix = Objects.requireNonNull(prefix);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> V get(QueryCacheKey key, Supplier<V> loader) {
+        var cache = getCache(key.entityType());
+        if (cache == null) {
+            return loader.get();
+        }
+        var cached = cache.get(key);
+        if (cached != null) {
+            return (V) cached.get();
+        }
+        var generation = generation(key.entityType());
+        var currentEpoch = this.epoch.get();
+        var value = loader.get();
+        cache.put(key, value);
+        // the cache may have been cleared between the load and the put, the value may be stale
+        if (generation != generation(key.entityType()) || currentEpoch != this.epoch.get()) {
+            cache.evict(key);
+        }
+        return value;
+    }
+
+    @Override
+    public void invalidate(Class<?> entityType) {
+        this.generations.computeIfAbsent(entityType, type -> new AtomicLong()).incrementAndGet();
+        var cache = getCache(entityType);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.epoch.incrementAndGet();
+        this.cacheManager.getCacheNames().stream()
+                .filter(name -> name.startsWith(this.prefix))
+                .map(this.cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear);
+    }
+
+    private long generation(Class<?> entityType) {
+        var generation = this.generations.get(entityType);
+        return generation != null ? generation.get() : 0;
+    }
+
+    private Cache getCache(Class<?> entityType) {
+        return this.cacheManager.getCache(this.prefix + entityType.getName());
+    }
+}
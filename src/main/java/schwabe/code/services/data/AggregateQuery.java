@@ -0,0 +1,110 @@
+package schwabe.code.services.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes column aggregates in the database with a single JPA Criteria query.
+ * @param <T> The java bean type
+ */
+public class AggregateQuery<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Aggregate functions. {@link #SUM} and {@link #AVG} need numeric properties,
+     * the others work for any comparable property, e.g. dates.
+     */
+    public enum Function {
+        SUM("Sum"),
+        AVG("Avg"),
+        MIN("Min"),
+        MAX("Max"),
+        COUNT_DISTINCT("Distinct");
+
+        private final String label;
+
+        Function(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * An aggregate function applied to a property.
+     * @param property the property name
+     * @param function the function
+     */
+    public record Aggregate(String property, Function function) implements Serializable {
+
+        @Override
+        public String toString() {
+            return function + "(" + property + ")";
+        }
+    }
+
+    private final Class<T> bean;
+
+    public AggregateQuery(Class<T> bean) {
+        this.bean = bean;
+    }
+
+    /**
+     * Computes all aggregates in one query.
+     * @param entityManager the entity manager to query with
+     * @param specification the filter, may be null
+     * @param aggregates the aggregates to compute
+     * @return the value per aggregate, null if there are no matching rows
+     */
+    public Map<Aggregate, Object> compute(EntityManager entityManager, Specification<T> specification, List<Aggregate> aggregates) {
+        var result = new LinkedHashMap<Aggregate, Object>();
+        if (aggregates.isEmpty()) {
+            return result;
+        }
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createTupleQuery();
+        var root = query.from(this.bean);
+        var selections = new ArrayList<Selection<?>>();
+        aggregates.forEach(aggregate -> selections.add(toExpression(builder, root, aggregate)));
+        query.multiselect(selections);
+        if (specification != null) {
+            var predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        Tuple tuple = entityManager.createQuery(query).getSingleResult();
+        for (int i = 0; i < aggregates.size(); i++) {
+            result.put(aggregates.get(i), tuple.get(i));
+        }
+        return result;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Expression<?> toExpression(CriteriaBuilder builder, Root<?> root, Aggregate aggregate) {
+        var path = root.get(aggregate.property());
+        return switch (aggregate.function()) {
+            case SUM -> builder.sum((Expression<Number>) (Expression) path);
+            case AVG -> builder.avg((Expression<Number>) (Expression) path);
+            case MIN -> builder.least((Expression<Comparable>) (Expression) path);
+            case MAX -> builder.greatest((Expression<Comparable>) (Expression) path);
+            case COUNT_DISTINCT -> builder.countDistinct(path);
+        };
+    }
+}
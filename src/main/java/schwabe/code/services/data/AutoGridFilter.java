@@ -0,0 +1,201 @@
+package schwabe.code.services.data;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.jpa.domain.Specification;
+import schwabe.code.services.util.EntityMetadata;
+
+import java.beans.PropertyDescriptor;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Holds the column filters of an AutoGrid and converts them to database queries.
+ * <p>The filter is converted to a {@link Specification} if the repository supports it,
+ * or to an {@link Example} as fallback. Range criteria can only be expressed as {@link Specification}.</p>
+ * @param <T> The java bean type
+ */
+public class AutoGridFilter<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Criterion> criteria = new LinkedHashMap<>();
+
+    /**
+     * Filters the property for values containing the given text, ignoring case.
+     * @param property the field name
+     * @param text the text to search for, blank removes the criterion
+     */
+    public void setText(String property, String text) {
+        if (text == null || text.isBlank()) {
+            this.criteria.remove(property);
+        } else {
+            this.criteria.put(property, new Criterion(Criterion.Kind.TEXT, text.trim(), null, null));
+        }
+    }
+
+    /**
+     * Filters the property for values equal to the given value.
+     * @param property the field name
+     * @param value the value to match, null removes the criterion
+     */
+    public void setEquals(String property, Object value) {
+        if (value == null) {
+            this.criteria.remove(property);
+        } else {
+            this.criteria.put(property, new Criterion(Criterion.Kind.EQUALS, value, null, null));
+        }
+    }
+
+    /**
+     * Filters the property for values within the given inclusive bounds.
+     * @param property the field name
+     * @param from the lower bound, may be null
+     * @param to the upper bound, may be null
+     */
+    public <V extends Comparable<? super V>> void setRange(String property, V from, V to) {
+        if (from == null && to == null) {
+            this.criteria.remove(property);
+        } else {
+            this.criteria.put(property, new Criterion(Criterion.Kind.RANGE, null, from, to));
+        }
+    }
+
+    /**
+     * Creates an independent copy of this filter, for example to use it as cache key.
+     * @return the copy
+     */
+    public AutoGridFilter<T> copy() {
+        var copy = new AutoGridFilter<T>();
+        copy.criteria.putAll(this.criteria);
+        return copy;
+    }
+
+    /**
+     * Removes all criteria.
+     */
+    public void clear() {
+        this.criteria.clear();
+    }
+
+    /**
+     * Returns true if no criteria are set.
+     * @return true if the filter matches everything
+     */
+    public boolean isEmpty() {
+        return this.criteria.isEmpty();
+    }
+
+    /**
+     * Returns true if any criterion can only be expressed as {@link Specification}.
+     * @return true if range criteria are set
+     */
+    public boolean hasRangeCriteria() {
+        return this.criteria.values().stream().anyMatch(criterion -> criterion.kind == Criterion.Kind.RANGE);
+    }
+
+    /**
+     * Creates a {@link Specification} combining all criteria with AND.
+     * @return the specification, matching everything if the filter is empty
+     */
+    public Specification<T> toSpecification() {
+        var snapshot = new LinkedHashMap<>(this.criteria);
+        return (root, query, builder) -> builder.and(snapshot.entrySet().stream()
+                .map(entry -> toPredicate(root, builder, entry.getKey(), entry.getValue()))
+                .toArray(Predicate[]::new));
+    }
+
+    /**
+     * Creates an {@link Example} from a probe instance of the bean.
+     * Range criteria are not supported by Query by Example and are ignored.
+     * @param bean the class of the bean, needs a no-args constructor
+     * @return the example, matching only the text and equals criteria
+     */
+    public Example<T> toExample(Class<T> bean) {
+        var probe = BeanUtils.instantiateClass(bean);
+        var wrapper = new BeanWrapperImpl(probe);
+
+        // primitives, field initializers and constructors give the probe values that would be matched otherwise
+        var ignoredPaths = new LinkedHashSet<String>();
+        EntityMetadata.of(bean).getProperties().forEach(property -> ignoredPaths.add(property.getName()));
+        Arrays.stream(wrapper.getPropertyDescriptors()).map(PropertyDescriptor::getName)
+                .filter(name -> !"class".equals(name))
+                .forEach(ignoredPaths::add);
+        this.criteria.forEach((property, criterion) -> {
+            if (criterion.kind != Criterion.Kind.RANGE) {
+                ignoredPaths.remove(property);
+            }
+        });
+        var matcher = ExampleMatcher.matchingAll().withIgnoreNullValues().withIgnorePaths(ignoredPaths.toArray(String[]::new));
+
+        for (var entry : this.criteria.entrySet()) {
+            var criterion = entry.getValue();
+            if (criterion.kind == Criterion.Kind.TEXT) {
+                wrapper.setPropertyValue(entry.getKey(), criterion.value);
+                matcher = matcher.withMatcher(entry.getKey(), ExampleMatcher.GenericPropertyMatchers.contains().ignoreCase());
+            } else if (criterion.kind == Criterion.Kind.EQUALS) {
+                wrapper.setPropertyValue(entry.getKey(), criterion.value);
+            }
+        }
+        return Example.of(probe, matcher);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate toPredicate(Root<?> root, CriteriaBuilder builder, String property, Criterion criterion) {
+        return switch (criterion.kind) {
+            case TEXT -> builder.like(builder.lower(root.get(property).as(String.class)),
+                    "%" + escapeLike(criterion.value.toString().toLowerCase(Locale.ROOT)) + "%", '\\');
+            case EQUALS -> builder.equal(root.get(property), criterion.value);
+            case RANGE -> {
+                Expression<Comparable> path = root.get(property);
+                var predicates = new ArrayList<Predicate>();
+                if (criterion.from != null) {
+                    predicates.add(builder.greaterThanOrEqualTo(path, (Comparable) criterion.from));
+                }
+                if (criterion.to != null) {
+                    predicates.add(builder.lessThanOrEqualTo(path, (Comparable) criterion.to));
+                }
+                yield builder.and(predicates.toArray(Predicate[]::new));
+            }
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AutoGridFilter<?> that)) return false;
+        return criteria.equals(that.criteria);
+    }
+
+    @Override
+    public int hashCode() {
+        return criteria.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AutoGridFilter" + criteria;
+    }
+
+    /**
+     * A single criterion on a property.
+     */
+    private record Criterion(Kind kind, Object value, Comparable<?> from, Comparable<?> to) implements Serializable {
+
+        private enum Kind {
+            TEXT, EQUALS, RANGE
+        }
+    }
+}
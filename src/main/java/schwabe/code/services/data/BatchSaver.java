@@ -0,0 +1,88 @@
+package schwabe.code.services.data;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Saves a list of items with {@link org.springframework.data.repository.CrudRepository#saveAll(Iterable) saveAll()}
+ * in batches of a fixed size.
+ * <p>If a batch fails, for example because of a {@code @Version} conflict, its items are saved one by one,
+ * so a single stale row does not fail the other rows.</p>
+ * @param <T> The java bean type
+ * @param <ID> The type of the entity id
+ */
+public class BatchSaver<T, ID> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final RepositoryAccess<T, ID> repositoryAccess;
+    private final int batchSize;
+
+    /**
+     * Creates a new saver.
+     * @param repositoryAccess the repository to save to
+     * @param batchSize the number of items per saveAll call, must be greater than zero
+     */
+    public BatchSaver(RepositoryAccess<T, ID> repositoryAccess, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than zero");
+        }
+        this.repositoryAccess = repositoryAccess;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Saves the given items. Blocks until all batches are done.
+     * @param items the items to save
+     * @return the saved and the failed items
+     */
+    public Result<T> save(List<T> items) {
+        // identity keys, unsaved items may not have an id for equals yet
+        var saved = new IdentityHashMap<T, T>();
+        var failed = new IdentityHashMap<T, RuntimeException>();
+        for (int start = 0; start < items.size(); start += this.batchSize) {
+            var batch = items.subList(start, Math.min(items.size(), start + this.batchSize));
+            try {
+                var iterator = this.repositoryAccess.saveAll(batch).iterator();
+                batch.forEach(item -> saved.put(item, iterator.next()));
+            } catch (RuntimeException batchException) {
+                batch.forEach(item -> {
+                    try {
+                        saved.put(item, this.repositoryAccess.save(item));
+                    } catch (RuntimeException e) {
+                        failed.put(item, e);
+                    }
+                });
+            }
+        }
+        return new Result<>(saved, failed);
+    }
+
+    /**
+     * The outcome of a batch save.
+     * @param saved maps each successfully saved item to the entity returned by the repository, by identity
+     * @param failed maps each failed item to its exception, by identity
+     * @param <T> The java bean type
+     */
+    public record Result<T>(Map<T, T> saved, Map<T, RuntimeException> failed) implements Serializable {
+
+        public static <T> Result<T> empty() {
+            return new Result<>(Map.of(), Map.of());
+        }
+
+        /**
+         * Returns the items that failed because of an optimistic lock ({@code @Version}) conflict.
+         * @return the conflicting items
+         */
+        public List<T> conflicts() {
+            return failed.entrySet().stream()
+                    .filter(entry -> entry.getValue() instanceof OptimisticLockingFailureException)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package schwabe.code.services.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.ClassUtils;
+import schwabe.code.services.util.EntityMetadata;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Updates or deletes many entities with set-based JPA Criteria statements, without loading them.
+ * <p>Rows are selected either by id, with one {@code WHERE id IN (...)} statement per {@link #MAX_IN_SIZE} ids,
+ * or by a filter with a single statement. A numeric version property is incremented by every update, so
+ * concurrent editors still detect the change. The statements bypass the persistence context: lifecycle
+ * callbacks, cascades and orphan removal are not applied, and a delete fails on foreign keys that reference
+ * the rows, unless the persistence provider removes collection table rows itself.</p>
+ * <p>The methods must be called within a transaction.</p>
+ * @param <T> The java bean type
+ */
+public class BulkOperation<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximum number of ids per {@code IN} list, a limit of some databases.
+     */
+    public static final int MAX_IN_SIZE = 1000;
+
+    private final Class<T> bean;
+
+    public BulkOperation(Class<T> bean) {
+        this.bean = bean;
+    }
+
+    /**
+     * Returns true if the entity has an id property to select the rows by.
+     * @return true if bulk operations are possible
+     */
+    public boolean isSupported() {
+        return metadata().findIdProperty().isPresent();
+    }
+
+    /**
+     * Checks that the properties can be set by a bulk update and the values match their types.
+     * @param entityManager any entity manager of the persistence unit
+     * @param values the new value per property name
+     * @throws IllegalArgumentException if a property is the id or version, a collection, not mapped,
+     * or a value has the wrong type
+     */
+    public void checkValues(EntityManager entityManager, Map<String, Object> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("No values to update");
+        }
+        var entityType = entityManager.getMetamodel().entity(this.bean);
+        values.forEach((name, value) -> {
+            var property = metadata().findProperty(name).orElse(null);
+            var attribute = findAttribute(entityType, name);
+            if (property == null || attribute == null || attribute.isCollection() || property.isId() || property.isVersion()) {
+                throw new IllegalArgumentException(name + " of " + this.bean.getName() + " cannot be set by a bulk update");
+            }
+            if (value == null ? property.getType().isPrimitive() : !ClassUtils.isAssignableValue(property.getType(), value)) {
+                throw new IllegalArgumentException(value + " is not a valid value for " + name + " of type " + property.getType().getName());
+            }
+        });
+    }
+
+    /**
+     * Sets the values on all rows with the given ids.
+     * @param entityManager a transactional entity manager
+     * @param values the new value per property name, see {@link #checkValues(EntityManager, Map)}
+     * @param ids the ids of the rows
+     * @return the number of updated rows
+     */
+    public int updateByIds(EntityManager entityManager, Map<String, Object> values, Collection<?> ids) {
+        var updated = 0;
+        for (var chunk : chunks(ids)) {
+            updated += update(entityManager, values, (builder, root) -> root.get(idName()).in(chunk));
+        }
+        return updated;
+    }
+
+    /**
+     * Sets the values on all rows matching the filter.
+     * @param entityManager a transactional entity manager
+     * @param values the new value per property name, see {@link #checkValues(EntityManager, Map)}
+     * @param specification the filter, may be null to update all rows
+     * @return the number of updated rows
+     */
+    public int updateMatching(EntityManager entityManager, Map<String, Object> values, Specification<T> specification) {
+        return update(entityManager, values, toRestriction(specification));
+    }
+
+    /**
+     * Deletes all rows with the given ids.
+     * @param entityManager a transactional entity manager
+     * @param ids the ids of the rows
+     * @return the number of deleted rows
+     */
+    public int deleteByIds(EntityManager entityManager, Collection<?> ids) {
+        var deleted = 0;
+        for (var chunk : chunks(ids)) {
+            deleted += delete(entityManager, (builder, root) -> root.get(idName()).in(chunk));
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes all rows matching the filter.
+     * @param entityManager a transactional entity manager
+     * @param specification the filter, may be null to delete all rows
+     * @return the number of deleted rows
+     */
+    public int deleteMatching(EntityManager entityManager, Specification<T> specification) {
+        return delete(entityManager, toRestriction(specification));
+    }
+
+    private int update(EntityManager entityManager, Map<String, Object> values, BiFunction<CriteriaBuilder, Root<T>, Predicate> restriction) {
+        var builder = entityManager.getCriteriaBuilder();
+        var update = builder.createCriteriaUpdate(this.bean);
+        var root = update.from(this.bean);
+        values.forEach((name, value) -> update.set(name, value));
+        metadata().findVersionProperty()
+                .filter(version -> Number.class.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(version.getType())))
+                .ifPresent(version -> {
+                    Path<Number> path = root.get(version.getName());
+                    Expression<Number> incremented = builder.sum(path, toVersionIncrement(version.getType()));
+                    update.set(path, incremented);
+                });
+        var predicate = restriction.apply(builder, root);
+        if (predicate != null) {
+            update.where(predicate);
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private int delete(EntityManager entityManager, BiFunction<CriteriaBuilder, Root<T>, Predicate> restriction) {
+        var builder = entityManager.getCriteriaBuilder();
+        var delete = builder.createCriteriaDelete(this.bean);
+        var root = delete.from(this.bean);
+        var predicate = restriction.apply(builder, root);
+        if (predicate != null) {
+            delete.where(predicate);
+        }
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    /**
+     * Bulk statements have no {@code CriteriaQuery}, like {@code JpaSpecificationExecutor#delete},
+     * the specification is called with null instead.
+     */
+    private BiFunction<CriteriaBuilder, Root<T>, Predicate> toRestriction(Specification<T> specification) {
+        return (builder, root) -> specification != null ? specification.toPredicate(root, null, builder) : null;
+    }
+
+    private static Number toVersionIncrement(Class<?> type) {
+        var wrapper = ClassUtils.resolvePrimitiveIfNecessary(type);
+        if (wrapper == Long.class) {
+            return 1L;
+        } else if (wrapper == Short.class) {
+            return (short) 1;
+        }
+        return 1;
+    }
+
+    private static <E> List<List<E>> chunks(Collection<E> ids) {
+        var result = new ArrayList<List<E>>();
+        var chunk = new ArrayList<E>(Math.min(ids.size(), MAX_IN_SIZE));
+        for (var id : ids) {
+            chunk.add(id);
+            if (chunk.size() == MAX_IN_SIZE) {
+                result.add(chunk);
+                chunk = new ArrayList<>(MAX_IN_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            result.add(chunk);
+        }
+        return result;
+    }
+
+    private String idName() {
+        return metadata().findIdProperty().orElseThrow(() ->
+                new IllegalStateException(this.bean.getName() + " has no id property")).getName();
+    }
+
+    private static Attribute<?, ?> findAttribute(EntityType<?> entityType, String name) {
+        try {
+            return entityType.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            // transient property
+            return null;
+        }
+    }
+
+    private EntityMetadata<T> metadata() {
+        return EntityMetadata.of(this.bean);
+    }
+}
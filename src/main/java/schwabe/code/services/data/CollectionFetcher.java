@@ -0,0 +1,232 @@
+package schwabe.code.services.data;
+
+import jakarta.persistence.*;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import schwabe.code.services.util.EntityMetadata;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.reflect.AnnotatedElement;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Loads entities together with their collection properties using a constant number of queries.
+ * <p>A page is loaded in two steps: the ids of the page, then the entities of these ids with a
+ * {@code jakarta.persistence.fetchgraph} hint that fetch joins the first collection and all eager to-one
+ * associations. Each further collection is fetch joined by one more query for the same ids in the same
+ * persistence context, which initializes it on the already loaded instances. Fetching one collection per query
+ * avoids cartesian products and multiple bag fetches. The persistence context is closed afterwards,
+ * the returned entities are detached with their collections initialized.</p>
+ * <p>Eager collections are always included, so they are not loaded one row at a time by the persistence provider.</p>
+ * @param <T> The java bean type
+ */
+public class CollectionFetcher<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+    private final Class<T> bean;
+
+    public CollectionFetcher(Class<T> bean) {
+        this.bean = bean;
+    }
+
+    /**
+     * Returns true if the entity has an id property to batch by.
+     * @return true if batch fetching is possible
+     */
+    public boolean isSupported() {
+        return metadata().findIdProperty().isPresent();
+    }
+
+    /**
+     * Returns the collection attributes that would be fetched for the given properties.
+     * @param entityManager any entity manager of the persistence unit
+     * @param properties the requested property names, names of non collection properties are ignored
+     * @return the requested collection attributes plus all eager collection attributes, in a stable order
+     */
+    public List<String> collectionsToFetch(EntityManager entityManager, Collection<String> properties) {
+        var entityType = entityManager.getMetamodel().entity(this.bean);
+        var result = new LinkedHashSet<String>();
+        properties.stream()
+                .map(name -> findAttribute(entityType, name))
+                .filter(attribute -> attribute != null && attribute.isCollection())
+                .forEach(attribute -> result.add(attribute.getName()));
+        entityType.getAttributes().stream()
+                .filter(attribute -> attribute.isCollection() && isEager(attribute))
+                .forEach(attribute -> result.add(attribute.getName()));
+        return List.copyOf(result);
+    }
+
+    /**
+     * Fetches a single page of entities with the given collections initialized.
+     * @param entityManager the shared entity manager, a short-lived one is created from its factory
+     * @param specification the filter, may be null
+     * @param pageable the requested rows and sort
+     * @param collections the collection properties to initialize, see {@link #collectionsToFetch(EntityManager, Collection)}
+     * @return the detached entities of the page, in the requested order
+     */
+    public List<T> fetch(EntityManager entityManager, Specification<T> specification, Pageable pageable, List<String> collections) {
+        try (var session = entityManager.getEntityManagerFactory().createEntityManager()) {
+            var ids = fetchIds(session, specification, pageable);
+            return loadInOrder(session, ids, collections);
+        }
+    }
+
+    /**
+     * Fetches all entities with the given collections initialized.
+     * @param entityManager the shared entity manager, a short-lived one is created from its factory
+     * @param collections the collection properties to initialize
+     * @return the detached entities
+     */
+    public List<T> fetchAll(EntityManager entityManager, List<String> collections) {
+        try (var session = entityManager.getEntityManagerFactory().createEntityManager()) {
+            return load(session, null, collections);
+        }
+    }
+
+    /**
+     * Fetches the ids of all entities.
+     * @param entityManager the shared entity manager, a short-lived one is created from its factory
+     * @param sort the order of the ids
+     * @return the ids
+     */
+    public List<Object> fetchAllIds(EntityManager entityManager, Sort sort) {
+        try (var session = entityManager.getEntityManagerFactory().createEntityManager()) {
+            return fetchIds(session, null, Pageable.unpaged(sort));
+        }
+    }
+
+    /**
+     * Fetches the entities with the given ids and collections initialized.
+     * @param entityManager the shared entity manager, a short-lived one is created from its factory
+     * @param ids the ids
+     * @param collections the collection properties to initialize
+     * @return the detached entities, in the order of the ids, without the ids that do not exist
+     */
+    public List<T> fetchByIds(EntityManager entityManager, List<?> ids, List<String> collections) {
+        try (var session = entityManager.getEntityManagerFactory().createEntityManager()) {
+            return loadInOrder(session, ids, collections);
+        }
+    }
+
+    /**
+     * Fetches a single entity with the given collections initialized.
+     * @param entityManager the shared entity manager, a short-lived one is created from its factory
+     * @param id the id
+     * @param collections the collection properties to initialize
+     * @return the detached entity, empty if it does not exist
+     */
+    public Optional<T> fetchById(EntityManager entityManager, Object id, List<String> collections) {
+        try (var session = entityManager.getEntityManagerFactory().createEntityManager()) {
+            return load(session, (builder, idPath) -> builder.equal(idPath, id), collections).stream().findFirst();
+        }
+    }
+
+    private List<Object> fetchIds(EntityManager session, Specification<T> specification, Pageable pageable) {
+        var builder = session.getCriteriaBuilder();
+        var query = builder.createQuery(Object.class);
+        var root = query.from(this.bean);
+        query.select(root.get(idName()));
+        if (specification != null) {
+            var predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+        var typedQuery = session.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+    private List<T> loadInOrder(EntityManager session, List<?> ids, List<String> collections) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var entities = load(session, (builder, idPath) -> idPath.in(ids), collections);
+        var byId = new HashMap<Object, T>();
+        entities.forEach(entity -> byId.put(idOf(entity), entity));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<T> load(EntityManager session, BiFunction<CriteriaBuilder, Path<Object>, Predicate> restriction, List<String> collections) {
+        var entityType = session.getMetamodel().entity(this.bean);
+        List<T> result = null;
+        for (int i = 0; i < Math.max(1, collections.size()); i++) {
+            var graph = session.createEntityGraph(this.bean);
+            if (i == 0) {
+                entityType.getAttributes().stream()
+                        .filter(attribute -> attribute.isAssociation() && !attribute.isCollection() && isEager(attribute))
+                        .forEach(attribute -> graph.addAttributeNodes(attribute.getName()));
+            }
+            if (!collections.isEmpty()) {
+                graph.addAttributeNodes(collections.get(i));
+            }
+            var builder = session.getCriteriaBuilder();
+            var query = builder.createQuery(this.bean);
+            var root = query.from(this.bean);
+            query.select(root);
+            if (restriction != null) {
+                query.where(restriction.apply(builder, root.get(idName())));
+            }
+            var entities = session.createQuery(query).setHint(FETCH_GRAPH, graph).getResultList();
+            if (result == null) {
+                result = entities;
+            }
+        }
+        return result;
+    }
+
+    private Object idOf(T entity) {
+        return metadata().findIdProperty().orElseThrow().getValue(entity);
+    }
+
+    private String idName() {
+        return metadata().findIdProperty().orElseThrow(() ->
+                new IllegalStateException(this.bean.getName() + " has no id property")).getName();
+    }
+
+    private static boolean isEager(Attribute<?, ?> attribute) {
+        if (!(attribute.getJavaMember() instanceof AnnotatedElement member)) {
+            return false;
+        }
+        return switch (attribute.getPersistentAttributeType()) {
+            case MANY_TO_ONE -> !member.isAnnotationPresent(ManyToOne.class) || member.getAnnotation(ManyToOne.class).fetch() == FetchType.EAGER;
+            case ONE_TO_ONE -> !member.isAnnotationPresent(OneToOne.class) || member.getAnnotation(OneToOne.class).fetch() == FetchType.EAGER;
+            case ONE_TO_MANY -> member.isAnnotationPresent(OneToMany.class) && member.getAnnotation(OneToMany.class).fetch() == FetchType.EAGER;
+            case MANY_TO_MANY -> member.isAnnotationPresent(ManyToMany.class) && member.getAnnotation(ManyToMany.class).fetch() == FetchType.EAGER;
+            case ELEMENT_COLLECTION -> member.isAnnotationPresent(ElementCollection.class) && member.getAnnotation(ElementCollection.class).fetch() == FetchType.EAGER;
+            default -> false;
+        };
+    }
+
+    private static Attribute<?, ?> findAttribute(EntityType<?> entityType, String name) {
+        try {
+            return entityType.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            // transient property
+            return null;
+        }
+    }
+
+    private EntityMetadata<T> metadata() {
+        return EntityMetadata.of(this.bean);
+    }
+}
@@ -0,0 +1,142 @@
+package schwabe.code.services.data;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.util.EntityMetadata;
+import schwabe.code.services.util.OffsetPageRequest;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Fetches pages with keyset (seek) pagination where possible, see {@link RepositoryAccess#scroll}.
+ * <p>The sort is always completed with the id, so the order is unique. After each page the sort key values of its
+ * last row are remembered as boundary of the following offset. A request starting at a remembered boundary,
+ * which is what sequential scrolling produces, continues with {@code WHERE (sort keys) > (boundary)} and can use
+ * an index instead of skipping rows. Random jumps fall back to an offset query, which records a new boundary.</p>
+ * <p>If collections are requested, the ids of the page are selected by keyset and the entities with their
+ * collections loaded by id, see {@link RepositoryAccess#scrollWithCollections}, so a page never loads
+ * a collection per row.</p>
+ * <p>Boundaries are discarded when the sort or filter changes, and should be {@link #reset() reset}
+ * when rows are inserted or deleted.</p>
+ * <p>A keyset condition never matches rows with null sort values, so a sort by an optional attribute is always
+ * fetched by offset, see {@link RepositoryAccess#supportsKeysetPaging(Sort)}.</p>
+ * @param <T> The java bean type
+ * @param <ID> The type of the entity id
+ */
+public class KeysetPager<T, ID> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Default number of remembered page boundaries.
+     */
+    public static final int DEFAULT_MAX_BOUNDARIES = 64;
+
+    private final RepositoryAccess<T, ID> repositoryAccess;
+    private final Map<Long, LinkedHashMap<String, Object>> boundaries;
+    private Sort boundarySort;
+    private AutoGridFilter<T> boundaryFilter;
+
+    public KeysetPager(RepositoryAccess<T, ID> repositoryAccess) {
+        this(repositoryAccess, DEFAULT_MAX_BOUNDARIES);
+    }
+
+    /**
+     * Creates a new pager.
+     * @param repositoryAccess the repository, needs to support {@link RepositoryAccess#supportsKeysetPaging() keyset paging}
+     * @param maxBoundaries the number of remembered boundaries, the least recently used is dropped first
+     */
+    public KeysetPager(RepositoryAccess<T, ID> repositoryAccess, int maxBoundaries) {
+        this.repositoryAccess = repositoryAccess;
+        this.boundaries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, LinkedHashMap<String, Object>> eldest) {
+                return size() > maxBoundaries;
+            }
+        };
+    }
+
+    /**
+     * Fetches the rows of the page, by keyset if the offset is the first row or a remembered boundary
+     * and no sort property may be null.
+     * @param pageable the requested rows and sort
+     * @param filter the active filter, may be null
+     * @return the items of the page
+     */
+    public List<T> fetch(Pageable pageable, AutoGridFilter<T> filter) {
+        return fetch(pageable, filter, List.of());
+    }
+
+    /**
+     * Fetches the rows of the page with the given collections initialized, by keyset if the offset is the first
+     * row or a remembered boundary and no sort property may be null.
+     * @param pageable the requested rows and sort
+     * @param filter the active filter, may be null
+     * @param collections the collection properties, see {@link RepositoryAccess#getCollectionsToFetch(Collection)}
+     * @return the items of the page
+     */
+    public List<T> fetch(Pageable pageable, AutoGridFilter<T> filter, List<String> collections) {
+        var sort = withId(pageable.getSort());
+        var snapshot = filter != null ? filter.copy() : new AutoGridFilter<T>();
+        if (!sort.equals(this.boundarySort) || !snapshot.equals(this.boundaryFilter)) {
+            reset();
+            this.boundarySort = sort;
+            this.boundaryFilter = snapshot;
+        }
+        var request = new OffsetPageRequest(pageable.getOffset(), pageable.getPageSize(), sort);
+        if (!this.repositoryAccess.supportsKeysetPaging(sort)) {
+            return this.repositoryAccess.fetchWithCollections(request, filter, collections);
+        }
+        var keys = pageable.getOffset() == 0 ? Map.<String, Object>of() : this.boundaries.get(pageable.getOffset());
+        var items = keys != null
+                ? this.repositoryAccess.scrollWithCollections(request, filter, keys, collections)
+                : this.repositoryAccess.fetchWithCollections(request, filter, collections);
+        if (!items.isEmpty()) {
+            var next = keysOf(items.get(items.size() - 1), sort);
+            if (next != null) {
+                this.boundaries.put(pageable.getOffset() + items.size(), next);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Forgets all boundaries, e.g. after rows have been inserted or deleted.
+     */
+    public void reset() {
+        this.boundaries.clear();
+    }
+
+    private Sort withId(Sort sort) {
+        if (metadata().findIdProperty().isEmpty()) {
+            throw new IllegalStateException(this.repositoryAccess.getBeanType().getName() + " has no id property");
+        }
+        return this.repositoryAccess.withIdOrder(sort);
+    }
+
+    /**
+     * Reads the sort key values of the row, null if a sort property is not a top-level property of the bean.
+     */
+    private LinkedHashMap<String, Object> keysOf(T item, Sort sort) {
+        var keys = new LinkedHashMap<String, Object>();
+        for (var order : sort) {
+            var property = metadata().findProperty(order.getProperty());
+            if (property.isEmpty() || !property.get().isReadable()) {
+                return null;
+            }
+            var value = property.get().getValue(item);
+            if (value == null) {
+                return null;
+            }
+            keys.put(order.getProperty(), value);
+        }
+        return keys;
+    }
+
+    private EntityMetadata<T> metadata() {
+        return EntityMetadata.of(this.repositoryAccess.getBeanType());
+    }
+}
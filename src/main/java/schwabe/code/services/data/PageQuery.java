@@ -0,0 +1,57 @@
+package schwabe.code.services.data;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Loads a page of entities with a JPA Criteria query limited by offset and page size.
+ * <p>Unlike {@code findAll(Pageable)}, whose {@link org.springframework.data.domain.Page} result needs the total,
+ * no count query is executed. The grid counts separately with {@link RepositoryAccess#count(AutoGridFilter)}.</p>
+ * @param <T> The java bean type
+ */
+public class PageQuery<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Class<T> bean;
+
+    public PageQuery(Class<T> bean) {
+        this.bean = bean;
+    }
+
+    /**
+     * Fetches a single page of entities.
+     * @param entityManager the entity manager to query with
+     * @param specification the filter, may be null
+     * @param pageable the requested rows and sort
+     * @return the entities of the page
+     */
+    public List<T> fetch(EntityManager entityManager, Specification<T> specification, Pageable pageable) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(this.bean);
+        var root = query.from(this.bean);
+        query.select(root);
+        if (specification != null) {
+            var predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+        var typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+}
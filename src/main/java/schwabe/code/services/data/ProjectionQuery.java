@@ -0,0 +1,152 @@
+package schwabe.code.services.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import schwabe.code.services.util.EntityMetadata;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Loads a page of entities with a JPA Criteria tuple query that selects only the given properties.
+ * <p>The result rows are new, unmanaged instances of the bean class with only the selected properties
+ * and the id set, meant for display only. Load the complete entity by id before editing it.</p>
+ * <p>Singular attributes are selected in one query, to-one associations with a left join.
+ * Collection attributes are loaded with one additional {@code IN (:ids)} query each for the whole page.
+ * Properties that are not mapped or have no setter are left at their default value, as are primitive
+ * properties whose column is {@code NULL}.</p>
+ * @param <T> The java bean type
+ */
+public class ProjectionQuery<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Class<T> bean;
+
+    public ProjectionQuery(Class<T> bean) {
+        this.bean = bean;
+    }
+
+    /**
+     * Returns true if the entity has an id property that can be set on the result rows.
+     * @return true if projections are possible
+     */
+    public boolean isSupported() {
+        return metadata().findIdProperty().filter(EntityMetadata.Property::isWritable).isPresent();
+    }
+
+    /**
+     * Fetches a single page of items.
+     * @param entityManager the entity manager to query with
+     * @param specification the filter, may be null
+     * @param pageable the requested rows and sort
+     * @param properties the names of the properties to select, the id is always selected
+     * @return the partially populated items of the page
+     */
+    public List<T> fetch(EntityManager entityManager, Specification<T> specification, Pageable pageable, Collection<String> properties) {
+        var idProperty = metadata().findIdProperty().orElseThrow(() ->
+                new IllegalStateException(this.bean.getName() + " has no id property"));
+        var entityType = entityManager.getMetamodel().entity(this.bean);
+        var singular = new ArrayList<EntityMetadata.Property>();
+        var plural = new ArrayList<EntityMetadata.Property>();
+        singular.add(idProperty);
+        for (var name : new LinkedHashSet<>(properties)) {
+            var property = metadata().findProperty(name).orElse(null);
+            var attribute = findAttribute(entityType, name);
+            if (property == null || property.isId() || !property.isWritable() || attribute == null) {
+                continue;
+            }
+            (attribute.isCollection() ? plural : singular).add(property);
+        }
+
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createTupleQuery();
+        var root = query.from(this.bean);
+        var selections = new ArrayList<Selection<?>>();
+        for (var property : singular) {
+            var association = entityType.getAttribute(property.getName()).isAssociation();
+            var path = association ? root.join(property.getName(), JoinType.LEFT) : root.get(property.getName());
+            selections.add(path.alias(property.getName()));
+        }
+        query.multiselect(selections);
+        if (specification != null) {
+            var predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+        var typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        var items = new LinkedHashMap<Object, T>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            var item = BeanUtils.instantiateClass(this.bean);
+            for (var property : singular) {
+                var value = tuple.get(property.getName());
+                if (value != null || !property.getType().isPrimitive()) {
+                    property.setValue(item, value);
+                }
+            }
+            items.put(tuple.get(idProperty.getName()), item);
+        }
+        if (!items.isEmpty()) {
+            plural.forEach(property -> fetchCollection(entityManager, idProperty, property, items));
+        }
+        return new ArrayList<>(items.values());
+    }
+
+    private void fetchCollection(EntityManager entityManager, EntityMetadata.Property idProperty,
+                                 EntityMetadata.Property property, Map<Object, T> items) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createTupleQuery();
+        var root = query.from(this.bean);
+        var element = root.join(property.getName());
+        query.multiselect(root.get(idProperty.getName()), element);
+        query.where(root.get(idProperty.getName()).in(items.keySet()));
+
+        var values = new HashMap<Object, Collection<Object>>();
+        items.keySet().forEach(id -> values.put(id, newCollection(property.getType())));
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            values.get(tuple.get(0)).add(tuple.get(1));
+        }
+        items.forEach((id, item) -> property.setValue(item, values.get(id)));
+    }
+
+    private static Collection<Object> newCollection(Class<?> type) {
+        if (type.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>();
+        } else if (SortedSet.class.isAssignableFrom(type)) {
+            return new TreeSet<>();
+        }
+        return new LinkedHashSet<>();
+    }
+
+    private static Attribute<?, ?> findAttribute(EntityType<?> entityType, String name) {
+        try {
+            return entityType.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            // transient property
+            return null;
+        }
+    }
+
+    private EntityMetadata<T> metadata() {
+        return EntityMetadata.of(this.bean);
+    }
+}
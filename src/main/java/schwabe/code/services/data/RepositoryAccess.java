@@ -0,0 +1,672 @@
+package schwabe.code.services.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.QueryByExampleExecutor;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import schwabe.code.services.cache.QueryCache;
+import schwabe.code.services.cache.QueryCacheKey;
+import schwabe.code.services.util.EntityMetadata;
+import schwabe.code.services.util.OffsetPageRequest;
+import schwabe.code.services.util.SpringContext;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+import java.util.stream.StreamSupport;
+
+/**
+ * Executes the queries of an AutoGrid against the Spring managed repository bean.
+ * <p>Only the repository class is stored, the bean is looked up on each call.
+ * Queries use the most capable interface the repository implements:
+ * {@link JpaSpecificationExecutor}, {@link QueryByExampleExecutor}, {@link PagingAndSortingRepository}
+ * and finally {@link CrudRepository}. Pages are loaded with a {@link PageQuery} if an {@link EntityManager}
+ * is available, so no count query is executed per page.</p>
+ * @param <T> The java bean type
+ * @param <ID> The type of the entity id
+ */
+public class RepositoryAccess<T, ID> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Class<T> bean;
+    private final Class<? extends CrudRepository<T, ID>> repository;
+    private transient QueryCache queryCache;
+    private boolean queryCacheDisabled;
+    private final PageQuery<T> pageQuery;
+    private final ProjectionQuery<T> projectionQuery;
+    private final CollectionFetcher<T> collectionFetcher;
+    private final AggregateQuery<T> aggregateQuery;
+    private final BulkOperation<T> bulkOperation;
+
+    public RepositoryAccess(Class<T> bean, Class<? extends CrudRepository<T, ID>> repository) {
+        this.bean = bean;
+        this.repository = repository;
+        this.pageQuery = new PageQuery<>(bean);
+        this.projectionQuery = new ProjectionQuery<>(bean);
+        this.collectionFetcher = new CollectionFetcher<>(bean);
+        this.aggregateQuery = new AggregateQuery<>(bean);
+        this.bulkOperation = new BulkOperation<>(bean);
+    }
+
+    /**
+     * Returns the Spring managed repository bean.
+     * @return the repository instance
+     */
+    public CrudRepository<T, ID> getRepository() {
+        return SpringContext.getBean(this.repository);
+    }
+
+    /**
+     * Returns the class of the java bean.
+     * @return the bean class
+     */
+    public Class<T> getBeanType() {
+        return this.bean;
+    }
+
+    /**
+     * Returns a shared, transaction aware {@link EntityManager}.
+     * @return the {@link EntityManager} Spring bean, or one created for the unique {@link EntityManagerFactory} bean,
+     * otherwise null
+     */
+    public EntityManager getEntityManager() {
+        return SpringContext.findBean(EntityManager.class)
+                .or(() -> SpringContext.findBean(EntityManagerFactory.class).map(SharedEntityManagerCreator::createSharedEntityManager))
+                .orElse(null);
+    }
+
+    /**
+     * Returns the cache for page and count results.
+     * @return the configured cache, or the {@link QueryCache} Spring bean if one exists, otherwise null
+     */
+    public QueryCache getQueryCache() {
+        if (this.queryCacheDisabled) {
+            return null;
+        }
+        return this.queryCache != null ? this.queryCache : SpringContext.findBean(QueryCache.class).orElse(null);
+    }
+
+    /**
+     * Sets the cache for page and count results.
+     * @param queryCache the cache, null to disable caching for this instance
+     */
+    public void setQueryCache(QueryCache queryCache) {
+        this.queryCache = queryCache;
+        this.queryCacheDisabled = queryCache == null;
+    }
+
+    /**
+     * Loads the entity by its id, see {@link CrudRepository#findById(Object)}.
+     * @param id the id
+     * @return the entity, empty if it does not exist
+     */
+    public Optional<T> findById(ID id) {
+        return getRepository().findById(id);
+    }
+
+    /**
+     * Loads the entity by its id with the given collections initialized, see {@link CollectionFetcher}.
+     * Falls back to {@link #findById(Object)} if no {@link EntityManager} is available or no collection is given.
+     * @param id the id
+     * @param collections the collection properties to initialize
+     * @return the entity, empty if it does not exist
+     */
+    public Optional<T> findById(ID id, List<String> collections) {
+        var entityManager = getEntityManager();
+        if (collections.isEmpty() || entityManager == null || !this.collectionFetcher.isSupported()) {
+            return findById(id);
+        }
+        return this.collectionFetcher.fetchById(entityManager, id, collections);
+    }
+
+    /**
+     * Saves the item and invalidates the cached results of the entity class.
+     * @param item the item
+     * @return the saved entity
+     */
+    public T save(T item) {
+        try {
+            return getRepository().save(item);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    /**
+     * Saves the items in one call and invalidates the cached results of the entity class.
+     * @param items the items
+     * @return the saved entities, in the same order
+     */
+    public List<T> saveAll(List<T> items) {
+        try {
+            var saved = new ArrayList<T>(items.size());
+            getRepository().saveAll(items).forEach(saved::add);
+            return saved;
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    /**
+     * Deletes the item and invalidates the cached results of the entity class.
+     * @param item the item
+     */
+    public void delete(T item) {
+        try {
+            getRepository().delete(item);
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    /**
+     * Removes the cached results of the entity class, if a cache is active.
+     */
+    public void invalidateCache() {
+        var cache = getQueryCache();
+        if (cache != null) {
+            cache.invalidate(this.bean);
+        }
+    }
+
+    /**
+     * Returns true if the repository can be queried page by page.
+     * @return true if lazy loading is possible
+     */
+    public boolean isPageable() {
+        var instance = getRepository();
+        return instance instanceof PagingAndSortingRepository<?, ?>
+                || instance instanceof JpaSpecificationExecutor<?>
+                || instance instanceof QueryByExampleExecutor<?>;
+    }
+
+    /**
+     * Returns true if filters can be pushed down to the database.
+     * @return true if the repository supports specifications or query by example
+     */
+    public boolean isFilterable() {
+        var instance = getRepository();
+        return instance instanceof JpaSpecificationExecutor<?> || instance instanceof QueryByExampleExecutor<?>;
+    }
+
+    /**
+     * Returns true if range filters can be pushed down to the database.
+     * @return true if the repository supports specifications
+     */
+    public boolean supportsRangeFilters() {
+        return getRepository() instanceof JpaSpecificationExecutor<?>;
+    }
+
+    /**
+     * Returns the collection properties that are loaded in batches for the given properties:
+     * the requested collection properties plus all eager ones, see {@link CollectionFetcher}.
+     * @param properties the property names, e.g. of the visible columns
+     * @return the collection properties, empty if no {@link EntityManager} is available or the entity has no id
+     */
+    public List<String> getCollectionsToFetch(Collection<String> properties) {
+        var entityManager = getEntityManager();
+        if (entityManager == null || !this.collectionFetcher.isSupported()) {
+            return List.of();
+        }
+        return this.collectionFetcher.collectionsToFetch(entityManager, properties);
+    }
+
+    /**
+     * Fetches a single page of items matching the filter with the given collections initialized by a constant
+     * number of queries, through the {@link #getQueryCache() cache} if active. See {@link CollectionFetcher}.
+     * Falls back to {@link #fetch(Pageable, AutoGridFilter)} if no collection is given.
+     * @param pageable the requested rows and sort
+     * @param filter the active filter, may be null
+     * @param collections the collection properties, see {@link #getCollectionsToFetch(Collection)}
+     * @return the items of the page
+     */
+    public List<T> fetchWithCollections(Pageable pageable, AutoGridFilter<T> filter, List<String> collections) {
+        if (collections.isEmpty()) {
+            return fetch(pageable, filter);
+        }
+        var ordered = withIdOrder(pageable);
+        var cache = getQueryCache();
+        if (cache == null) {
+            return fetchWithCollectionsFromRepository(ordered, filter, collections);
+        }
+        return cache.get(QueryCacheKey.pageWithCollections(this.bean, filter, ordered, collections),
+                () -> List.copyOf(fetchWithCollectionsFromRepository(ordered, filter, collections)));
+    }
+
+    private List<T> fetchWithCollectionsFromRepository(Pageable pageable, AutoGridFilter<T> filter, List<String> collections) {
+        var specification = filter != null && !filter.isEmpty() ? filter.toSpecification() : null;
+        return this.collectionFetcher.fetch(getEntityManager(), specification, pageable, collections);
+    }
+
+    /**
+     * Completes the sort with the id as last order, so rows with equal sort values keep their order between
+     * pages and neither repeat nor vanish.
+     * @param sort the requested sort
+     * @return the sort ending with the id, the given sort if it already contains the id or the entity has none
+     */
+    public Sort withIdOrder(Sort sort) {
+        return EntityMetadata.of(this.bean).findIdProperty()
+                .map(EntityMetadata.Property::getName)
+                .filter(idName -> sort.getOrderFor(idName) == null)
+                .map(idName -> sort.and(Sort.by(idName)))
+                .orElse(sort);
+    }
+
+    private Pageable withIdOrder(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        var sort = withIdOrder(pageable.getSort());
+        return sort == pageable.getSort() ? pageable : new OffsetPageRequest(pageable.getOffset(), pageable.getPageSize(), sort);
+    }
+
+    /**
+     * Returns true if pages can be fetched by keyset, see {@link KeysetPager}.
+     * @return true if the repository supports specifications and the entity has an id
+     */
+    public boolean supportsKeysetPaging() {
+        return getRepository() instanceof JpaSpecificationExecutor<?> && EntityMetadata.of(this.bean).findIdProperty().isPresent();
+    }
+
+    /**
+     * Returns true if pages in the given order can be fetched by keyset. A {@code WHERE (sort keys) > (boundary)}
+     * condition never matches rows with null sort values, so every sort property must be a non-optional attribute
+     * of the entity in the JPA metamodel.
+     * @param sort the order of the pages
+     * @return true if {@link #supportsKeysetPaging() supported} and no sort property may be null
+     */
+    public boolean supportsKeysetPaging(Sort sort) {
+        var entityManager = getEntityManager();
+        if (!supportsKeysetPaging() || entityManager == null) {
+            return false;
+        }
+        var entity = entityManager.getMetamodel().entity(this.bean);
+        for (var order : sort) {
+            var attribute = entity.getAttributes().stream()
+                    .filter(candidate -> candidate.getName().equals(order.getProperty()))
+                    .findFirst();
+            if (attribute.isEmpty() || !(attribute.get() instanceof SingularAttribute<?, ?> singular) || singular.isOptional()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fetches the rows following the given sort key values, through the {@link #getQueryCache() cache} if active.
+     * <p>Uses Spring Data keyset scrolling, so the database seeks to the boundary instead of skipping
+     * {@link Pageable#getOffset()} rows. The result is cached under the same key as the equal offset query.</p>
+     * @param pageable the offset of the boundary, the number of rows and a unique sort
+     * @param filter the active filter, may be null
+     * @param keys the sort key values of the row before the page, empty for the first page
+     * @return the items of the page
+     */
+    public List<T> scroll(Pageable pageable, AutoGridFilter<T> filter, Map<String, Object> keys) {
+        var cache = getQueryCache();
+        if (cache == null) {
+            return scrollFromRepository(pageable, filter, keys);
+        }
+        return cache.get(QueryCacheKey.page(this.bean, filter, pageable), () -> List.copyOf(scrollFromRepository(pageable, filter, keys)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> scrollFromRepository(Pageable pageable, AutoGridFilter<T> filter, Map<String, Object> keys) {
+        var specification = (filter != null ? filter : new AutoGridFilter<T>()).toSpecification();
+        var position = keys.isEmpty() ? ScrollPosition.keyset() : ScrollPosition.forward(keys);
+        return ((JpaSpecificationExecutor<T>) getRepository()).findBy(specification, query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(position)).getContent();
+    }
+
+    /**
+     * Fetches the rows following the given sort key values with the given collections initialized,
+     * through the {@link #getQueryCache() cache} if active.
+     * <p>The ids of the page are selected with a {@code WHERE (sort keys) > (boundary)} condition, then the
+     * entities are loaded by id with a constant number of queries, see {@link CollectionFetcher}.
+     * The result is cached under the same key as the equal {@link #fetchWithCollections offset query}.
+     * Falls back to {@link #scroll(Pageable, AutoGridFilter, Map)} if no collection is given.</p>
+     * @param pageable the offset of the boundary, the number of rows and a unique sort
+     * @param filter the active filter, may be null
+     * @param keys the sort key values of the row before the page, empty for the first page
+     * @param collections the collection properties, see {@link #getCollectionsToFetch(Collection)}
+     * @return the items of the page
+     */
+    public List<T> scrollWithCollections(Pageable pageable, AutoGridFilter<T> filter, Map<String, Object> keys, List<String> collections) {
+        if (collections.isEmpty()) {
+            return scroll(pageable, filter, keys);
+        }
+        var cache = getQueryCache();
+        if (cache == null) {
+            return scrollWithCollectionsFromRepository(pageable, filter, keys, collections);
+        }
+        return cache.get(QueryCacheKey.pageWithCollections(this.bean, filter, pageable, collections),
+                () -> List.copyOf(scrollWithCollectionsFromRepository(pageable, filter, keys, collections)));
+    }
+
+    private List<T> scrollWithCollectionsFromRepository(Pageable pageable, AutoGridFilter<T> filter, Map<String, Object> keys,
+                                                        List<String> collections) {
+        var specification = filter != null && !filter.isEmpty() ? filter.toSpecification() : null;
+        var firstPage = new OffsetPageRequest(0, pageable.getPageSize(), pageable.getSort());
+        return this.collectionFetcher.fetch(getEntityManager(), Specification.where(specification).and(after(pageable.getSort(), keys)),
+                firstPage, collections);
+    }
+
+    /**
+     * Matches the rows that follow the given sort key values in the sort order.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Specification<T> after(Sort sort, Map<String, Object> keys) {
+        return (root, query, builder) -> {
+            if (keys.isEmpty()) {
+                return null;
+            }
+            var alternatives = new ArrayList<Predicate>();
+            var equal = new ArrayList<Predicate>();
+            for (var order : sort) {
+                Expression<Comparable<Object>> path = root.get(order.getProperty());
+                var value = (Comparable<Object>) keys.get(order.getProperty());
+                var alternative = new ArrayList<>(equal);
+                alternative.add(order.isAscending() ? builder.greaterThan(path, value) : builder.lessThan(path, value));
+                alternatives.add(builder.and(alternative.toArray(Predicate[]::new)));
+                equal.add(builder.equal(path, value));
+            }
+            return builder.or(alternatives.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Returns true if pages can be fetched with only some of the properties selected.
+     * @return true if the repository is pageable, an {@link EntityManager} is available and the entity has an id
+     */
+    public boolean supportsProjection() {
+        return isPageable() && this.projectionQuery.isSupported() && getEntityManager() != null;
+    }
+
+    /**
+     * Fetches a single page of items matching the filter with only the given properties and the id populated,
+     * through the {@link #getQueryCache() cache} if active. See {@link ProjectionQuery}.
+     * @param pageable the requested rows and sort
+     * @param filter the active filter, may be null
+     * @param properties the names of the properties to load
+     * @return the partially populated items of the page
+     */
+    public List<T> fetch(Pageable pageable, AutoGridFilter<T> filter, Collection<String> properties) {
+        var ordered = withIdOrder(pageable);
+        var cache = getQueryCache();
+        if (cache == null) {
+            return fetchProjection(ordered, filter, properties);
+        }
+        return cache.get(QueryCacheKey.page(this.bean, filter, ordered, properties),
+                () -> List.copyOf(fetchProjection(ordered, filter, properties)));
+    }
+
+    private List<T> fetchProjection(Pageable pageable, AutoGridFilter<T> filter, Collection<String> properties) {
+        var specification = filter != null && !filter.isEmpty() ? filter.toSpecification() : null;
+        return this.projectionQuery.fetch(getEntityManager(), specification, pageable, properties);
+    }
+
+    /**
+     * Fetches a single page of items matching the filter, through the {@link #getQueryCache() cache} if active.
+     * The sort is completed with the id, see {@link #withIdOrder(Sort)}, as for all page fetches.
+     * @param pageable the requested rows and sort
+     * @param filter the active filter, may be null
+     * @return the items of the page
+     */
+    public List<T> fetch(Pageable pageable, AutoGridFilter<T> filter) {
+        var ordered = withIdOrder(pageable);
+        var cache = getQueryCache();
+        if (cache == null) {
+            return fetchFromRepository(ordered, filter);
+        }
+        return cache.get(QueryCacheKey.page(this.bean, filter, ordered), () -> List.copyOf(fetchFromRepository(ordered, filter)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> fetchFromRepository(Pageable pageable, AutoGridFilter<T> filter) {
+        var instance = getRepository();
+        var entityManager = getEntityManager();
+        if (entityManager != null) {
+            return this.pageQuery.fetch(entityManager, toSpecification(instance, filter), pageable);
+        }
+        // the Page results of other stores may run an additional count query
+        if (filter != null && !filter.isEmpty()) {
+            if (instance instanceof JpaSpecificationExecutor<?>) {
+                return ((JpaSpecificationExecutor<T>) instance).findAll(filter.toSpecification(), pageable).getContent();
+            } else if (instance instanceof QueryByExampleExecutor<?>) {
+                return ((QueryByExampleExecutor<T>) instance).findAll(filter.toExample(this.bean), pageable).getContent();
+            }
+        }
+        if (instance instanceof PagingAndSortingRepository<?, ?>) {
+            return ((PagingAndSortingRepository<T, ID>) instance).findAll(pageable).getContent();
+        } else if (instance instanceof JpaSpecificationExecutor<?>) {
+            return ((JpaSpecificationExecutor<T>) instance).findAll(new AutoGridFilter<T>().toSpecification(), pageable).getContent();
+        } else if (instance instanceof QueryByExampleExecutor<?>) {
+            // an empty filter matches all items
+            return ((QueryByExampleExecutor<T>) instance).findAll(new AutoGridFilter<T>().toExample(this.bean), pageable).getContent();
+        }
+        throw new UnsupportedOperationException(this.repository.getName() + " does not support paging");
+    }
+
+    /**
+     * Converts the filter like {@link #count(AutoGridFilter)} interprets it: a {@link QueryByExampleExecutor}
+     * ignores range criteria, other repositories ignore the filter.
+     */
+    private Specification<T> toSpecification(CrudRepository<T, ID> instance, AutoGridFilter<T> filter) {
+        if (filter == null || filter.isEmpty()) {
+            return null;
+        }
+        if (instance instanceof JpaSpecificationExecutor<?>) {
+            return filter.toSpecification();
+        } else if (!(instance instanceof QueryByExampleExecutor<?>)) {
+            return null;
+        }
+        var example = filter.toExample(this.bean);
+        return (root, query, builder) -> QueryByExamplePredicateBuilder.getPredicate(root, builder, example);
+    }
+
+    /**
+     * Counts the items matching the filter with a count query, through the {@link #getQueryCache() cache} if active.
+     * @param filter the active filter, may be null
+     * @return the number of matching items
+     */
+    public long count(AutoGridFilter<T> filter) {
+        var cache = getQueryCache();
+        if (cache == null) {
+            return countFromRepository(filter);
+        }
+        return cache.get(QueryCacheKey.count(this.bean, filter), () -> countFromRepository(filter));
+    }
+
+    @SuppressWarnings("unchecked")
+    private long countFromRepository(AutoGridFilter<T> filter) {
+        var instance = getRepository();
+        if (filter != null && !filter.isEmpty()) {
+            if (instance instanceof JpaSpecificationExecutor<?>) {
+                return ((JpaSpecificationExecutor<T>) instance).count(filter.toSpecification());
+            } else if (instance instanceof QueryByExampleExecutor<?>) {
+                return ((QueryByExampleExecutor<T>) instance).count(filter.toExample(this.bean));
+            }
+        }
+        return instance.count();
+    }
+
+    /**
+     * Returns true if aggregates can be computed in the database.
+     * @return true if an {@link EntityManager} is available
+     */
+    public boolean supportsAggregates() {
+        return getEntityManager() != null;
+    }
+
+    /**
+     * Computes the aggregates of the items matching the filter with one query,
+     * through the {@link #getQueryCache() cache} if active. See {@link AggregateQuery}.
+     * @param filter the active filter, may be null
+     * @param aggregates the aggregates to compute
+     * @return unmodifiable map of the value per aggregate, values are null if no item matches
+     */
+    public Map<AggregateQuery.Aggregate, Object> aggregate(AutoGridFilter<T> filter, List<AggregateQuery.Aggregate> aggregates) {
+        var cache = getQueryCache();
+        if (cache == null) {
+            return aggregateFromRepository(filter, aggregates);
+        }
+        return cache.get(QueryCacheKey.aggregate(this.bean, filter, aggregates), () -> aggregateFromRepository(filter, aggregates));
+    }
+
+    private Map<AggregateQuery.Aggregate, Object> aggregateFromRepository(AutoGridFilter<T> filter, List<AggregateQuery.Aggregate> aggregates) {
+        var specification = filter != null && !filter.isEmpty() ? filter.toSpecification() : null;
+        return Collections.unmodifiableMap(this.aggregateQuery.compute(getEntityManager(), specification, aggregates));
+    }
+
+    /**
+     * Returns true if items can be updated and deleted with set-based statements.
+     * @return true if an {@link EntityManager}, a {@link PlatformTransactionManager} and an id property are available
+     */
+    public boolean supportsBulkOperations() {
+        return this.bulkOperation.isSupported() && getEntityManager() != null
+                && SpringContext.findBean(PlatformTransactionManager.class).isPresent();
+    }
+
+    /**
+     * Checks that the properties can be set by a bulk update, see {@link BulkOperation#checkValues}.
+     * @param values the new value per property name
+     * @throws IllegalArgumentException if a property cannot be set or a value has the wrong type
+     */
+    public void checkBulkValues(Map<String, Object> values) {
+        this.bulkOperation.checkValues(getEntityManager(), values);
+    }
+
+    /**
+     * Sets the values on the items with the given ids in one transaction, without loading them,
+     * and invalidates the cached results of the entity class. See {@link BulkOperation}.
+     * @param values the new value per property name
+     * @param ids the ids of the items
+     * @return the number of updated items
+     */
+    public int bulkUpdateByIds(Map<String, Object> values, Collection<ID> ids) {
+        checkBulkValues(values);
+        return inTransaction(entityManager -> this.bulkOperation.updateByIds(entityManager, values, ids));
+    }
+
+    /**
+     * Sets the values on all items matching the filter with one statement, without loading them,
+     * and invalidates the cached results of the entity class. See {@link BulkOperation}.
+     * @param values the new value per property name
+     * @param filter the active filter, may be null to update all items
+     * @return the number of updated items
+     */
+    public int bulkUpdateMatching(Map<String, Object> values, AutoGridFilter<T> filter) {
+        checkBulkValues(values);
+        var specification = filter != null && !filter.isEmpty() ? filter.toSpecification() : null;
+        return inTransaction(entityManager -> this.bulkOperation.updateMatching(entityManager, values, specification));
+    }
+
+    /**
+     * Deletes the items with the given ids in one transaction, without loading them,
+     * and invalidates the cached results of the entity class. See {@link BulkOperation}.
+     * @param ids the ids of the items
+     * @return the number of deleted items
+     */
+    public int bulkDeleteByIds(Collection<ID> ids) {
+        return inTransaction(entityManager -> this.bulkOperation.deleteByIds(entityManager, ids));
+    }
+
+    /**
+     * Deletes all items matching the filter with one statement, without loading them,
+     * and invalidates the cached results of the entity class. See {@link BulkOperation}.
+     * @param filter the active filter, may be null to delete all items
+     * @return the number of deleted items
+     */
+    public int bulkDeleteMatching(AutoGridFilter<T> filter) {
+        var specification = filter != null && !filter.isEmpty() ? filter.toSpecification() : null;
+        return inTransaction(entityManager -> this.bulkOperation.deleteMatching(entityManager, specification));
+    }
+
+    private int inTransaction(ToIntFunction<EntityManager> operation) {
+        var transactionManager = SpringContext.findBean(PlatformTransactionManager.class).orElseThrow(() ->
+                new UnsupportedOperationException("Bulk operations need a PlatformTransactionManager bean"));
+        var entityManager = getEntityManager();
+        try {
+            var result = new TransactionTemplate(transactionManager).execute(status -> operation.applyAsInt(entityManager));
+            return result != null ? result : 0;
+        } finally {
+            invalidateCache();
+        }
+    }
+
+    /**
+     * Loads all items of the repository at once.
+     * @return all items
+     */
+    public List<T> findAll() {
+        return StreamSupport.stream(getRepository().findAll().spliterator(), false).toList();
+    }
+
+    /**
+     * Returns true if items can be loaded by id lists, see {@link #findAllIds(Sort)}.
+     * @return true if an {@link EntityManager} and an id property are available
+     */
+    public boolean supportsIdQueries() {
+        return this.collectionFetcher.isSupported() && getEntityManager() != null;
+    }
+
+    /**
+     * Loads the ids of all items with one query, without loading the entities.
+     * @param sort the order of the ids
+     * @return the ids
+     */
+    @SuppressWarnings("unchecked")
+    public List<ID> findAllIds(Sort sort) {
+        return (List<ID>) (List<?>) this.collectionFetcher.fetchAllIds(getEntityManager(), sort);
+    }
+
+    /**
+     * Loads the items with the given ids by one query plus one query per collection, see {@link CollectionFetcher}.
+     * Falls back to {@link CrudRepository#findAllById(Iterable)} if no {@link EntityManager} is available.
+     * @param ids the ids
+     * @param collections the collection properties to initialize
+     * @return the items in the order of the ids, without the ids that no longer exist
+     */
+    public List<T> findAllById(List<ID> ids, List<String> collections) {
+        var entityManager = getEntityManager();
+        if (entityManager == null || !this.collectionFetcher.isSupported()) {
+            return StreamSupport.stream(getRepository().findAllById(ids).spliterator(), false).toList();
+        }
+        return this.collectionFetcher.fetchByIds(entityManager, ids, collections);
+    }
+
+    /**
+     * Loads all items at once with the given collections initialized by one query per collection.
+     * Falls back to {@link #findAll()} if no collection is given.
+     * @param collections the collection properties, see {@link #getCollectionsToFetch(Collection)}
+     * @return all items
+     */
+    public List<T> findAllWithCollections(List<String> collections) {
+        if (collections.isEmpty()) {
+            return findAll();
+        }
+        return this.collectionFetcher.fetchAll(getEntityManager(), collections);
+    }
+}
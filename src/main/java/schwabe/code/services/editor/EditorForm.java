@@ -0,0 +1,226 @@
+package schwabe.code.services.editor;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.component.ItemLabelGenerator;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.formlayout.FormLayout;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.binder.BeanValidationBinder;
+import com.vaadin.flow.data.binder.Result;
+import com.vaadin.flow.data.converter.Converter;
+import com.vaadin.flow.data.provider.AbstractListDataView;
+import com.vaadin.flow.data.provider.HasListDataView;
+import com.vaadin.flow.function.SerializableFunction;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
+import schwabe.code.services.metrics.AutoGridMetrics;
+import schwabe.code.services.util.EntityMetadata;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The editor form of an AutoGrid, built on first use and shared between the instances of a UI through the
+ * {@link EditorPool}.
+ * <p>Collection properties are shown by components listing the labels of their items, all other properties are
+ * bound to their fields by a {@link BeanValidationBinder}.</p>
+ * @param <T> The java bean type
+ */
+public class EditorForm<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Class<T> bean;
+    private final Div container;
+    private FormLayout formLayout;
+    private BeanValidationBinder<T> binder;
+    private Map<String, HasListDataView<String, AbstractListDataView<String>>> collectionFields = new HashMap<>();
+
+    /**
+     * @param bean the entity class
+     * @param container the component the form is added to while it is built
+     */
+    public EditorForm(Class<T> bean, Div container) {
+        this.bean = bean;
+        this.container = container;
+    }
+
+    /**
+     * Adds the form to the container, taken from the pool of the UI or built on first use.
+     * Does nothing if the form has already been added.
+     * @param ui the UI the grid is attached to, empty if it is detached
+     * @param key identifies forms with the same fields in the pool
+     * @param fieldFactory creates the component of a property, a {@link HasListDataView} for collections
+     *                     and a {@link HasValue} otherwise
+     * @param metrics the metrics to record the created components in
+     */
+    public void ensure(Optional<UI> ui, Serializable key, SerializableFunction<EntityMetadata.Property, Component> fieldFactory,
+                       AutoGridMetrics metrics) {
+        if (this.binder != null) {
+            return;
+        }
+        Pooled<T> pooled = ui.map(attached -> EditorPool.of(attached).<Pooled<T>>take(key)).orElse(null);
+        if (pooled == null) {
+            pooled = new Pooled<>(new FormLayout(), new BeanValidationBinder<>(this.bean), new HashMap<>());
+            build(pooled, fieldFactory, metrics);
+        }
+        this.formLayout = pooled.formLayout();
+        this.binder = pooled.binder();
+        this.collectionFields = pooled.collectionFields();
+        this.container.add(this.formLayout);
+    }
+
+    /**
+     * Clears the form and returns it to the pool of the UI, so other instances can reuse it.
+     * @param ui the UI the grid has been attached to
+     * @param key identifies forms with the same fields in the pool
+     */
+    public void release(UI ui, Serializable key) {
+        if (this.binder == null) {
+            return;
+        }
+        var pooled = new Pooled<>(this.formLayout, this.binder, this.collectionFields);
+        this.clear();
+        this.discard();
+        EditorPool.of(ui).release(key, pooled);
+    }
+
+    /**
+     * Removes the form from the container without returning it to a pool.
+     */
+    public void discard() {
+        if (this.formLayout != null) {
+            this.container.remove(this.formLayout);
+        }
+        this.formLayout = null;
+        this.binder = null;
+        this.collectionFields = new HashMap<>();
+    }
+
+    /**
+     * Returns the binder of the form.
+     * @return the binder, null until the form has been {@link #ensure added}
+     */
+    public BeanValidationBinder<T> getBinder() {
+        return binder;
+    }
+
+    /**
+     * Returns the edited item.
+     * @return the item, null if none is edited or the form has not been added
+     */
+    public T getItem() {
+        return this.binder != null ? this.binder.getBean() : null;
+    }
+
+    /**
+     * Returns the collection properties shown in the form.
+     * @return the property names, empty until the form has been added
+     */
+    public Set<String> getCollectionProperties() {
+        return this.collectionFields.keySet();
+    }
+
+    /**
+     * Edits the item and lists the items of its collection properties.
+     * @param item the item
+     * @param labelGenerators the label generator of the items per collection property, {@code String.valueOf} by default
+     */
+    @SuppressWarnings("unchecked")
+    public void setItem(T item, Map<String, ItemLabelGenerator<Object>> labelGenerators) {
+        this.binder.setBean(item);
+        this.collectionFields.forEach((name, field) -> {
+            var values = (Collection<?>) EntityMetadata.of(this.bean).getProperty(name).getValue(item);
+            field.setItems(values.stream().map(value -> labelGenerators.getOrDefault(name, String::valueOf).apply(value)).toList());
+        });
+    }
+
+    /**
+     * Stops editing and clears the fields.
+     */
+    public void clear() {
+        if (this.binder == null) {
+            return;
+        }
+        this.binder.setBean(null);
+        this.binder.refreshFields();
+        this.collectionFields.values().forEach(HasListDataView::setItems);
+    }
+
+    /**
+     * Replaces the component of a collection property at its position in the form.
+     * Does nothing if the form has not been added.
+     * @param property the name of the collection property
+     * @param field the new component
+     * @param <F> the type of the component
+     */
+    public <F extends Component & HasListDataView<String, AbstractListDataView<String>>> void replaceCollectionField(String property, F field) {
+        var replaced = this.collectionFields.get(property);
+        if (replaced == null) {
+            return;
+        }
+        int index = this.formLayout.getChildren().toList().indexOf((Component) replaced);
+        this.formLayout.remove((Component) replaced);
+        this.collectionFields.put(property, field);
+        this.formLayout.addComponentAtIndex(index, field);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void build(Pooled<T> pooled, SerializableFunction<EntityMetadata.Property, Component> fieldFactory,
+                       AutoGridMetrics metrics) {
+        EntityMetadata.of(this.bean).getDeclaredProperties().forEach(property -> {
+            var field = fieldFactory.apply(property);
+            if (property.isCollection()) {
+                pooled.collectionFields().put(property.getName(), (HasListDataView<String, AbstractListDataView<String>>) field);
+            } else if (field instanceof TextField textField && isNumber(property)) {
+                bindNumber(pooled.binder(), textField, property);
+            } else {
+                pooled.binder().forField((HasValue<?, ?>) field).bind(property.getName());
+            }
+            pooled.formLayout().add(field);
+            metrics.componentCreated(this.bean);
+        });
+    }
+
+    private static boolean isNumber(EntityMetadata.Property property) {
+        return Number.class.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(property.getType()));
+    }
+
+    /**
+     * Binds a number property without a matching field type, e.g. a {@code Long} id or version, to a text field.
+     * Ids and versions are generated and shown read-only.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void bindNumber(BeanValidationBinder<T> binder, TextField field, EntityMetadata.Property property) {
+        var type = (Class<Number>) ClassUtils.resolvePrimitiveIfNecessary(property.getType());
+        var binding = binder.forField(field)
+                .withNullRepresentation("")
+                .withConverter(Converter.<String, Number>from(text -> {
+                    try {
+                        return Result.ok(text != null ? NumberUtils.parseNumber(text.trim(), type) : null);
+                    } catch (IllegalArgumentException e) {
+                        return Result.error("Please enter a number");
+                    }
+                }, value -> value != null ? value.toString() : null));
+        if (property.isId() || property.isVersion()) {
+            binding.bind(bean -> (Number) property.getValue(bean), null);
+        } else {
+            binding.bind(property.getName());
+        }
+    }
+
+    /**
+     * The form fields and binder of an editor, pooled per UI.
+     */
+    private record Pooled<T>(FormLayout formLayout, BeanValidationBinder<T> binder,
+                             Map<String, HasListDataView<String, AbstractListDataView<String>>> collectionFields) implements Serializable {
+    }
+}
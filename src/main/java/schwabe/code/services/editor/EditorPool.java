@@ -0,0 +1,69 @@
+package schwabe.code.services.editor;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the editor components released by detached AutoGrids of a {@link UI} for reuse by other instances.
+ * <p>Editors are pooled by a key that identifies their structure, e.g. the entity class and the field types.
+ * A released editor is handed to at most one instance, so the pool never holds more editors than have been
+ * built concurrently. The pool is stored as {@link ComponentUtil#setData(com.vaadin.flow.component.Component, Class, Object) data}
+ * of the UI and is discarded with it. All access happens under the session lock.</p>
+ */
+public class EditorPool implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Map<Object, Deque<Object>> editors = new HashMap<>();
+
+    /**
+     * Returns the pool of the UI, creating it on first access.
+     * @param ui the UI
+     * @return the pool
+     */
+    public static EditorPool of(UI ui) {
+        var pool = ComponentUtil.getData(ui, EditorPool.class);
+        if (pool == null) {
+            pool = new EditorPool();
+            ComponentUtil.setData(ui, EditorPool.class, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Removes a released editor from the pool.
+     * @param key the structure of the editor
+     * @return the editor, null if none has been released
+     * @param <E> the type of the editor
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Serializable> E take(Object key) {
+        var released = this.editors.get(key);
+        return released != null ? (E) released.poll() : null;
+    }
+
+    /**
+     * Returns an editor to the pool. It must not be attached and must not be used by the releasing instance anymore.
+     * @param key the structure of the editor
+     * @param editor the editor
+     */
+    public void release(Object key, Serializable editor) {
+        this.editors.computeIfAbsent(key, k -> new ArrayDeque<>()).push(editor);
+    }
+
+    /**
+     * Returns the number of released editors.
+     * @return the number of editors in the pool
+     */
+    public int size() {
+        return this.editors.values().stream().mapToInt(Deque::size).sum();
+    }
+}
@@ -0,0 +1,64 @@
+package schwabe.code.services.event;
+
+import com.vaadin.flow.component.UI;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The {@link EntityChangeEvent events} of one coalesce interval, delivered to a listener of a {@link UI}.
+ * <p>All listeners notified in the same interval share the entities loaded with {@link #load}, so an entity
+ * changed once is loaded once for all open grids instead of once per grid and UI. The returned instances are
+ * shared between sessions and must not be edited in place, load a private copy before editing.</p>
+ */
+public final class EntityChangeBatch {
+
+    private static final Object ABSENT = new Object();
+
+    private final List<EntityChangeEvent> events;
+    private final Map<Object, Map<Object, Object>> loaded;
+
+    EntityChangeBatch(List<EntityChangeEvent> events, Map<Object, Map<Object, Object>> loaded) {
+        this.events = events;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Returns the events of the interval, without duplicates, in the order they have been published.
+     * @return the events
+     */
+    public List<EntityChangeEvent> events() {
+        return events;
+    }
+
+    /**
+     * Returns the entities with the given ids. Only the ids no listener of this interval has loaded under the
+     * same key are passed to the loader, at most once per interval.
+     * @param key identifies what is loaded, e.g. the repository and the initialized collections
+     * @param ids the ids
+     * @param loader loads the entities of the missing ids, e.g. with one {@code IN} query
+     * @param idExtractor reads the id of a loaded entity
+     * @return the entity per id, without the ids that do not exist
+     * @param <ID> The type of the entity id
+     * @param <T> The java bean type
+     */
+    @SuppressWarnings("unchecked")
+    public <ID, T> Map<ID, T> load(Object key, Collection<ID> ids, Function<List<ID>, List<T>> loader, Function<T, ID> idExtractor) {
+        synchronized (this.loaded) {
+            var byId = this.loaded.computeIfAbsent(key, k -> new HashMap<>());
+            var missing = ids.stream().filter(id -> !byId.containsKey(id)).distinct().toList();
+            if (!missing.isEmpty()) {
+                loader.apply(missing).forEach(entity -> byId.put(idExtractor.apply(entity), entity));
+                missing.forEach(id -> byId.putIfAbsent(id, ABSENT));
+            }
+            var result = new LinkedHashMap<ID, T>();
+            for (var id : ids) {
+                var entity = byId.get(id);
+                if (entity != null && entity != ABSENT) {
+                    result.put(id, (T) entity);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package schwabe.code.services.event;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.shared.Registration;
+import schwabe.code.services.cache.QueryCache;
+import schwabe.code.services.util.SpringContext;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM event bus for {@link EntityChangeEvent entity change events}, shared by all sessions.
+ * <p>Register a subclass or configured instance as Spring bean to replace the default instance, and set an
+ * {@link EntityChangeTransport} to forward events between the JVMs of a cluster.</p>
+ * <p>Listeners registered for a {@link UI} receive the events in batches: events arriving within the
+ * coalesce interval are collected per UI and delivered with a single {@link UI#access} call. All UIs are
+ * notified in the same round, so their listeners can share the loaded entities, see {@link EntityChangeBatch}.</p>
+ */
+public class EntityChangeBus {
+
+    /**
+     * Default time events are collected per UI before they are delivered.
+     */
+    public static final Duration DEFAULT_COALESCE_INTERVAL = Duration.ofMillis(500);
+
+    private static final EntityChangeBus DEFAULT = new EntityChangeBus();
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "auto-grid-change-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Class<?>, Set<Consumer<EntityChangeEvent>>> listeners = new ConcurrentHashMap<>();
+    private final Map<UI, UiCoalescer> coalescers = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile EntityChangeTransport transport;
+    private volatile Duration coalesceInterval = DEFAULT_COALESCE_INTERVAL;
+
+    /**
+     * Returns the {@link EntityChangeBus} Spring bean if one exists, otherwise the default instance.
+     * @return the bus
+     */
+    public static EntityChangeBus get() {
+        return SpringContext.findBean(EntityChangeBus.class).orElse(DEFAULT);
+    }
+
+    /**
+     * Sets the transport that forwards events to other JVMs.
+     * @param transport the transport, null for local delivery only
+     */
+    public void setTransport(EntityChangeTransport transport) {
+        this.transport = transport;
+        if (transport != null) {
+            transport.setReceiver(this::deliverRemote);
+        }
+    }
+
+    /**
+     * Sets the time events are collected per UI before they are delivered.
+     * @param coalesceInterval the interval
+     */
+    public void setCoalesceInterval(Duration coalesceInterval) {
+        this.coalesceInterval = Objects.requireNonNull(coalesceInterval);
+    }
+
+    /**
+     * Delivers the event to the local listeners of its entity class and sends it through the transport.
+     * @param event the event
+     */
+    public void publish(EntityChangeEvent event) {
+        deliver(event);
+        var currentTransport = this.transport;
+        if (currentTransport != null) {
+            currentTransport.send(event);
+        }
+    }
+
+    /**
+     * Registers a listener that is called directly on the publishing thread.
+     * @param entityType the entity class to listen to
+     * @param listener the listener
+     * @return the registration to remove the listener
+     */
+    public Registration register(Class<?> entityType, Consumer<EntityChangeEvent> listener) {
+        this.listeners.computeIfAbsent(entityType, type -> new CopyOnWriteArraySet<>()).add(listener);
+        return () -> this.listeners.getOrDefault(entityType, Set.of()).remove(listener);
+    }
+
+    /**
+     * Registers a listener that receives coalesced, de-duplicated events through {@link UI#access}.
+     * Remove the registration when the listening component is detached.
+     * @param ui the UI of the listening component
+     * @param entityType the entity class to listen to
+     * @param listener the listener, called with the events of one interval
+     * @return the registration to remove the listener
+     */
+    public Registration register(UI ui, Class<?> entityType, SerializableConsumer<EntityChangeBatch> listener) {
+        var coalescer = this.coalescers.compute(ui, (key, existing) -> {
+            var value = existing != null ? existing : new UiCoalescer(ui);
+            value.registrations++;
+            return value;
+        });
+        var registration = register(entityType, event -> coalescer.submit(listener, event));
+        return () -> {
+            registration.remove();
+            this.coalescers.computeIfPresent(ui, (key, existing) -> --existing.registrations > 0 ? existing : null);
+        };
+    }
+
+    private void deliverRemote(EntityChangeEvent event) {
+        // the shared query cache of this JVM has not seen the change
+        SpringContext.findBean(QueryCache.class).ifPresent(cache -> cache.invalidate(event.entityType()));
+        deliver(event);
+    }
+
+    private void deliver(EntityChangeEvent event) {
+        this.listeners.getOrDefault(event.entityType(), Set.of()).forEach(listener -> listener.accept(event));
+    }
+
+    private void scheduleFlush() {
+        if (this.flushScheduled.compareAndSet(false, true)) {
+            SCHEDULER.schedule(this::flush, this.coalesceInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Delivers the pending events of all UIs, which share the entities loaded in this round.
+     */
+    private void flush() {
+        this.flushScheduled.set(false);
+        var loaded = new HashMap<Object, Map<Object, Object>>();
+        this.coalescers.values().forEach(coalescer -> coalescer.flush(loaded));
+    }
+
+    /**
+     * Collects the events of one UI and delivers them at most once per interval.
+     */
+    private final class UiCoalescer {
+
+        private final UI ui;
+        private final Map<Consumer<EntityChangeBatch>, Set<EntityChangeEvent>> pending = new LinkedHashMap<>();
+        private int registrations;
+
+        private UiCoalescer(UI ui) {
+            this.ui = ui;
+        }
+
+        private void submit(Consumer<EntityChangeBatch> target, EntityChangeEvent event) {
+            synchronized (this) {
+                this.pending.computeIfAbsent(target, key -> new LinkedHashSet<>()).add(event);
+            }
+            scheduleFlush();
+        }
+
+        private void flush(Map<Object, Map<Object, Object>> loaded) {
+            Map<Consumer<EntityChangeBatch>, Set<EntityChangeEvent>> batch;
+            synchronized (this) {
+                if (this.pending.isEmpty()) {
+                    return;
+                }
+                batch = new LinkedHashMap<>(this.pending);
+                this.pending.clear();
+            }
+            try {
+                this.ui.access(() -> batch.forEach((target, events) ->
+                        target.accept(new EntityChangeBatch(List.copyOf(events), loaded))));
+            } catch (UIDetachedException e) {
+                // the UI has been closed in the meantime, nothing to update
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package schwabe.code.services.event;
+
+import java.io.Serializable;
+
+/**
+ * Published when an entity has been changed through an AutoGrid.
+ * @param entityType the entity class
+ * @param id the repository id of the entity, null if several rows have been changed at once by a bulk operation
+ * @param type the kind of change
+ * @param origin an identifier of the publishing AutoGrid, used to skip its own events
+ */
+public record EntityChangeEvent(Class<?> entityType, Object id, Type type, String origin) implements Serializable {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,298 @@
+package schwabe.code.services.event;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.data.provider.DataGenerator;
+import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.shared.Registration;
+import elemental.json.JsonObject;
+import org.springframework.data.repository.CrudRepository;
+import schwabe.code.services.data.RepositoryAccess;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Publishes the changes made through an AutoGrid on the {@link EntityChangeBus} and applies the changes of other
+ * instances to its grid.
+ * <p>Updated rows are reloaded only if the grid holds them and they have no pending changes, with one query per
+ * interval shared by all notified grids, see {@link EntityChangeBatch}. Created and deleted rows are added to and
+ * removed from an in-memory grid, a lazy grid is refreshed. A bulk change reloads all rows and the edited item.</p>
+ * @param <T> The java bean type
+ * @param <ID> The type of the entity id
+ */
+public class EntityChangeHandler<T, ID> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Class<T> bean;
+    private final Class<? extends CrudRepository<T, ID>> repository;
+    private final Grid<T> grid;
+    private final RepositoryAccess<T, ID> repositoryAccess;
+    private final Target<T, ID> target;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Set<ID> heldIds = new HashSet<>();
+    private boolean trackingHeldIds;
+    private boolean sharedItems;
+    private transient Registration registration;
+
+    public EntityChangeHandler(Class<T> bean, Class<? extends CrudRepository<T, ID>> repository, Grid<T> grid,
+                               RepositoryAccess<T, ID> repositoryAccess, Target<T, ID> target) {
+        this.bean = bean;
+        this.repository = repository;
+        this.grid = grid;
+        this.repositoryAccess = repositoryAccess;
+        this.target = target;
+    }
+
+    /**
+     * Tracks the ids of the rows the data communicator has sent to the client and not yet dropped, so updates of
+     * rows a lazy grid does not show are not loaded. Without tracking all updated rows are loaded.
+     */
+    public void trackHeldIds() {
+        if (!this.trackingHeldIds) {
+            this.trackingHeldIds = true;
+            this.grid.addDataGenerator(new HeldIdTracker());
+        }
+    }
+
+    /**
+     * Starts listening for changes of other instances. Does nothing if already listening.
+     * @param ui the UI the grid is attached to
+     */
+    public void register(UI ui) {
+        if (this.registration == null) {
+            this.registration = EntityChangeBus.get().register(ui, this.bean, this::onEntityChanges);
+        }
+    }
+
+    /**
+     * Stops listening for changes of other instances.
+     */
+    public void unregister() {
+        if (this.registration != null) {
+            this.registration.remove();
+            this.registration = null;
+        }
+    }
+
+    /**
+     * Returns true if the grid shows entities loaded for a change, which are shared with other sessions.
+     * @return true if shared entities have been loaded
+     */
+    public boolean hasSharedItems() {
+        return sharedItems;
+    }
+
+    /**
+     * Publishes a change of a single row. Rows without id are not published.
+     * @param item the changed item
+     * @param type the type of change
+     */
+    public void publish(T item, EntityChangeEvent.Type type) {
+        var id = this.target.getId(item);
+        if (id != null) {
+            EntityChangeBus.get().publish(new EntityChangeEvent(this.bean, id, type, this.instanceId));
+        }
+    }
+
+    /**
+     * Publishes a single event without id for a bulk change, instead of one event per row.
+     * @param type the type of change
+     */
+    public void publishBulk(EntityChangeEvent.Type type) {
+        EntityChangeBus.get().publish(new EntityChangeEvent(this.bean, null, type, this.instanceId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onEntityChanges(EntityChangeBatch batch) {
+        var refreshAll = false;
+        var reload = false;
+        var updated = new LinkedHashSet<ID>();
+        var created = new LinkedHashSet<ID>();
+        for (var event : batch.events()) {
+            if (this.instanceId.equals(event.origin()) || !this.target.isLoaded()) {
+                continue;
+            }
+            if (event.id() == null) {
+                reload = true;
+                continue;
+            }
+            var id = (ID) event.id();
+            switch (event.type()) {
+                case UPDATED -> {
+                    if (!this.target.isDirty(id) && isHeld(id)) {
+                        updated.add(id);
+                    }
+                }
+                case CREATED -> {
+                    if (isInMemory()) {
+                        created.add(id);
+                    } else {
+                        refreshAll = true;
+                    }
+                }
+                case DELETED -> {
+                    updated.remove(id);
+                    created.remove(id);
+                    var edited = this.target.getEditedItem();
+                    if (edited != null && id.equals(this.target.getId(edited))) {
+                        this.target.stopEditing();
+                    }
+                    if (isInMemory()) {
+                        findInMemory(id).ifPresent(this.grid.getListDataView()::removeItem);
+                    } else {
+                        refreshAll = true;
+                    }
+                }
+            }
+        }
+        if (!reload && (!updated.isEmpty() || !created.isEmpty())) {
+            var ids = new LinkedHashSet<>(updated);
+            ids.addAll(created);
+            var collections = this.target.getCollectionsToFetch();
+            // one query for all changed rows, shared with the other grids notified in this interval
+            var loaded = batch.load(List.of(this.repository, collections), ids,
+                    missing -> this.repositoryAccess.findAllById(missing, collections), this.target::getId);
+            this.sharedItems = this.sharedItems || !loaded.isEmpty();
+            updated.stream().map(loaded::get).filter(Objects::nonNull).forEach(this::onItemUpdated);
+            created.stream().map(loaded::get).filter(Objects::nonNull).forEach(this.grid.getListDataView()::addItem);
+        }
+        if (reload) {
+            this.onBulkChange();
+        } else if (refreshAll) {
+            this.target.reload();
+        }
+        this.target.changesApplied();
+    }
+
+    /**
+     * Reloads the data and the edited item, any row may have been changed or deleted.
+     */
+    private void onBulkChange() {
+        this.target.reload();
+        var edited = this.target.getEditedItem();
+        var id = edited != null ? this.target.getId(edited) : null;
+        if (id != null && !this.target.isDirty(id)) {
+            this.repositoryAccess.findById(id).ifPresentOrElse(this::onItemUpdated, this.target::stopEditing);
+        }
+    }
+
+    private void onItemUpdated(T saved) {
+        this.target.replaceItem(saved);
+        var edited = this.target.getEditedItem();
+        var id = this.target.getId(saved);
+        if (edited != null && (id != null ? id.equals(this.target.getId(edited)) : edited.equals(saved))) {
+            Notification.show("This row has been changed by another user");
+        }
+    }
+
+    /**
+     * Returns true if the grid currently holds an item with the id, to avoid loading rows that are not shown.
+     */
+    private boolean isHeld(ID id) {
+        if (isInMemory()) {
+            return findInMemory(id).isPresent();
+        }
+        return !this.trackingHeldIds || this.heldIds.contains(id);
+    }
+
+    private boolean isInMemory() {
+        return this.grid.getDataProvider() instanceof ListDataProvider<?>;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<T> findInMemory(ID id) {
+        return ((ListDataProvider<T>) this.grid.getDataProvider()).getItems().stream()
+                .filter(item -> id.equals(this.target.getId(item)))
+                .findFirst();
+    }
+
+    /**
+     * The grid the changes are applied to.
+     * @param <T> The java bean type
+     * @param <ID> The type of the entity id
+     */
+    public interface Target<T, ID> extends Serializable {
+
+        /**
+         * Returns true once the grid has loaded its data, changes before are ignored.
+         * @return true if the data has been loaded
+         */
+        boolean isLoaded();
+
+        /**
+         * Returns true if the row has pending changes, which a remote update must not overwrite.
+         * @param id the id of the row
+         * @return true if the row has pending changes
+         */
+        boolean isDirty(ID id);
+
+        /**
+         * Returns the id of an item.
+         * @param item the item
+         * @return the id, null if the item has none
+         */
+        ID getId(T item);
+
+        /**
+         * Returns the item shown in the editor.
+         * @return the item, null if none is edited
+         */
+        T getEditedItem();
+
+        /**
+         * Deselects all rows and clears the editor, the edited row has been deleted.
+         */
+        void stopEditing();
+
+        /**
+         * Returns the collection properties to initialize when loading changed rows.
+         * @return the property names
+         */
+        List<String> getCollectionsToFetch();
+
+        /**
+         * Replaces the row with the same id by the changed item and refreshes it.
+         * @param item the changed item
+         */
+        void replaceItem(T item);
+
+        /**
+         * Reloads all rows, rows have been inserted or deleted.
+         */
+        void reload();
+
+        /**
+         * Called after a batch of changes has been applied, e.g. to update counts and aggregates.
+         */
+        void changesApplied();
+    }
+
+    /**
+     * Tracks the ids of the rows the data communicator has sent to the client and not yet dropped.
+     */
+    private class HeldIdTracker implements DataGenerator<T> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void generateData(T item, JsonObject jsonObject) {
+            heldIds.add(target.getId(item));
+        }
+
+        @Override
+        public void destroyData(T item) {
+            heldIds.remove(target.getId(item));
+        }
+
+        @Override
+        public void destroyAllData() {
+            heldIds.clear();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package schwabe.code.services.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Forwards {@link EntityChangeEvent entity change events} between the JVMs of a cluster,
+ * e.g. through a message broker or database notifications.
+ * <p>Events and their ids need to be serializable by the transport.</p>
+ */
+public interface EntityChangeTransport {
+
+    /**
+     * Sends an event published in this JVM to the other JVMs.
+     * @param event the event
+     */
+    void send(EntityChangeEvent event);
+
+    /**
+     * Sets the receiver that delivers events from other JVMs to the local listeners.
+     * @param receiver the receiver
+     */
+    void setReceiver(Consumer<EntityChangeEvent> receiver);
+}
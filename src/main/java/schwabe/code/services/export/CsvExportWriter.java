@@ -0,0 +1,66 @@
+package schwabe.code.services.export;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * {@link ExportWriter} for RFC 4180 comma separated values in UTF-8, with a byte order mark for spreadsheet programs.
+ * <p>Text starting with {@code =}, {@code +}, {@code -}, {@code @}, a tab or a carriage return is prefixed with
+ * {@code '}, so spreadsheet programs do not evaluate it as a formula (CSV injection). Numbers are written as is.</p>
+ */
+public class CsvExportWriter implements ExportWriter {
+
+    private final Writer writer;
+
+    public CsvExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.writer.write('\uFEFF');
+    }
+
+    @Override
+    public void writeHeader(List<String> captions) throws IOException {
+        writeRow(captions);
+    }
+
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                this.writer.write(',');
+            }
+            var value = values.get(i);
+            if (value instanceof Number) {
+                writeValue(value.toString());
+            } else if (value != null) {
+                writeValue(escapeFormula(String.valueOf(value)));
+            }
+        }
+        this.writer.write("\r\n");
+    }
+
+    private static String escapeFormula(String value) {
+        if (value.isEmpty()) {
+            return value;
+        }
+        return switch (value.charAt(0)) {
+            case '=', '+', '-', '@', '\t', '\r' -> "'" + value;
+            default -> value;
+        };
+    }
+
+    private void writeValue(String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            this.writer.write(value);
+            return;
+        }
+        this.writer.write('"');
+        this.writer.write(value.replace("\"", "\"\""));
+        this.writer.write('"');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.writer.flush();
+    }
+}
@@ -0,0 +1,41 @@
+package schwabe.code.services.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * File formats of the AutoGrid export.
+ */
+public enum ExportFormat {
+    CSV("text/csv;charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Creates a writer for this format.
+     * @param out the stream to write to, not closed by the writer
+     * @return the writer
+     * @throws IOException if the stream cannot be written
+     */
+    public ExportWriter createWriter(OutputStream out) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvExportWriter(out);
+            case XLSX -> new XlsxExportWriter(out);
+        };
+    }
+}
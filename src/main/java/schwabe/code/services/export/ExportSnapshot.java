@@ -0,0 +1,29 @@
+package schwabe.code.services.export;
+
+import com.vaadin.flow.component.ItemLabelGenerator;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.data.AutoGridFilter;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of a grid an export is created from, taken while holding the session lock.
+ * @param properties the exported properties, in column order
+ * @param captions the header caption per property
+ * @param labelGenerators the label generator per collection property, {@link String#valueOf(Object)} if absent
+ * @param sort the displayed order, completed with the id so it is unique
+ * @param filter the active filter
+ * @param items the items of a non-paging repository, exported as they are, otherwise null
+ * @param ids the retained ids in the displayed order, loaded by id in chunks, otherwise null
+ * @param projection true to load only the exported properties, see {@link schwabe.code.services.data.ProjectionQuery}
+ * @param collectionBatchFetch true to batch fetch the collection properties, see {@link schwabe.code.services.data.CollectionFetcher}
+ * @param <T> The java bean type
+ * @param <ID> The type of the entity id
+ */
+public record ExportSnapshot<T, ID>(List<String> properties, List<String> captions,
+                                    Map<String, ItemLabelGenerator<Object>> labelGenerators, Sort sort,
+                                    AutoGridFilter<T> filter, List<T> items, List<ID> ids, boolean projection,
+                                    boolean collectionBatchFetch) implements Serializable {
+}
@@ -0,0 +1,31 @@
+package schwabe.code.services.export;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes rows of a table to an output stream one by one, without holding previous rows in memory.
+ */
+public interface ExportWriter {
+
+    /**
+     * Writes a row of header captions.
+     * @param captions the captions
+     * @throws IOException if the stream cannot be written
+     */
+    void writeHeader(List<String> captions) throws IOException;
+
+    /**
+     * Writes a row of values. Numbers and booleans are written as such where the format supports it,
+     * all other values with {@link String#valueOf(Object)}, null as empty cell.
+     * @param values the cell values
+     * @throws IOException if the stream cannot be written
+     */
+    void writeRow(List<?> values) throws IOException;
+
+    /**
+     * Writes the end of the document and flushes, the output stream is not closed.
+     * @throws IOException if the stream cannot be written
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,135 @@
+package schwabe.code.services.export;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.server.StreamResource;
+import org.springframework.data.repository.CrudRepository;
+import schwabe.code.services.data.KeysetPager;
+import schwabe.code.services.data.RepositoryAccess;
+import schwabe.code.services.util.EntityMetadata;
+import schwabe.code.services.util.OffsetPageRequest;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the rows of an {@link ExportSnapshot} to an {@link ExportWriter}, for the downloads of an AutoGrid.
+ * <p>Rows are read from the repository in chunks of {@link #CHUNK_SIZE} through the same queries as the grid,
+ * each chunk in its own persistence context and without the query cache, and written directly, so memory use
+ * does not grow with the number of rows. Sequential chunks use keyset paging if no sort property may be null,
+ * see {@link RepositoryAccess#supportsKeysetPaging(org.springframework.data.domain.Sort)}.</p>
+ * @param <T> The java bean type
+ * @param <ID> The type of the entity id
+ */
+public class GridExporter<T, ID> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of rows loaded per query while exporting.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    private final Class<T> bean;
+    private final Class<? extends CrudRepository<T, ID>> repository;
+
+    public GridExporter(Class<T> bean, Class<? extends CrudRepository<T, ID>> repository) {
+        this.bean = bean;
+        this.repository = repository;
+    }
+
+    /**
+     * Creates a download that takes a snapshot of the grid under the session lock and writes it without the lock.
+     * @param format the file format
+     * @param ui returns the UI the grid is attached to
+     * @param snapshot takes the snapshot, called while holding the session lock
+     * @return the resource
+     */
+    public StreamResource createResource(ExportFormat format, SerializableSupplier<Optional<UI>> ui,
+                                         SerializableSupplier<ExportSnapshot<T, ID>> snapshot) {
+        var resource = new StreamResource(this.bean.getSimpleName() + "." + format.getExtension(), (out, session) -> {
+            // the resource is written without the session lock
+            var attached = ui.get().orElseThrow(() -> new IOException("AutoGrid needs to be attached to export"));
+            var taken = new AtomicReference<ExportSnapshot<T, ID>>();
+            attached.accessSynchronously(() -> taken.set(snapshot.get()));
+            this.write(taken.get(), format.createWriter(out));
+        });
+        resource.setContentType(format.getContentType());
+        resource.setCacheTime(0);
+        return resource;
+    }
+
+    /**
+     * Writes the header and all rows of the snapshot and finishes the writer.
+     * @param snapshot the exported view
+     * @param writer the writer of the file format
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(ExportSnapshot<T, ID> snapshot, ExportWriter writer) throws IOException {
+        writer.writeHeader(snapshot.captions());
+        if (snapshot.items() != null) {
+            for (var item : snapshot.items()) {
+                writer.writeRow(values(snapshot, item));
+            }
+            writer.finish();
+            return;
+        }
+        var access = new RepositoryAccess<T, ID>(this.bean, this.repository);
+        access.setQueryCache(null);
+        if (snapshot.ids() != null) {
+            var collections = access.getCollectionsToFetch(snapshot.properties());
+            for (int from = 0; from < snapshot.ids().size(); from += CHUNK_SIZE) {
+                var ids = snapshot.ids().subList(from, Math.min(from + CHUNK_SIZE, snapshot.ids().size()));
+                for (var item : access.findAllById(ids, collections)) {
+                    writer.writeRow(values(snapshot, item));
+                }
+            }
+            writer.finish();
+            return;
+        }
+        var collections = snapshot.projection() || !snapshot.collectionBatchFetch()
+                ? List.<String>of() : access.getCollectionsToFetch(snapshot.properties());
+        // keyset chunks would skip rows with null sort values, offset chunks are ordered by the id after the sort
+        var pager = !snapshot.projection() && access.supportsKeysetPaging(snapshot.sort()) ? new KeysetPager<>(access, 2) : null;
+        for (long offset = 0; ; offset += CHUNK_SIZE) {
+            var pageable = new OffsetPageRequest(offset, CHUNK_SIZE, snapshot.sort());
+            List<T> chunk;
+            if (snapshot.projection()) {
+                chunk = access.fetch(pageable, snapshot.filter(), snapshot.properties());
+            } else if (pager != null) {
+                chunk = pager.fetch(pageable, snapshot.filter(), collections);
+            } else {
+                chunk = access.fetchWithCollections(pageable, snapshot.filter(), collections);
+            }
+            for (var item : chunk) {
+                writer.writeRow(values(snapshot, item));
+            }
+            if (chunk.size() < CHUNK_SIZE) {
+                break;
+            }
+        }
+        writer.finish();
+    }
+
+    private List<Object> values(ExportSnapshot<T, ID> snapshot, T item) {
+        var values = new ArrayList<>(snapshot.properties().size());
+        for (var name : snapshot.properties()) {
+            var property = EntityMetadata.of(this.bean).getProperty(name);
+            var value = property.isReadable() ? property.getValue(item) : null;
+            if (value instanceof Collection<?> collection) {
+                var labelGenerator = snapshot.labelGenerators().getOrDefault(name, String::valueOf);
+                value = collection.stream().map(labelGenerator::apply).collect(Collectors.joining(", "));
+            }
+            values.add(value);
+        }
+        return values;
+    }
+}
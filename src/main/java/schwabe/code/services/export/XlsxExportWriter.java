@@ -0,0 +1,119 @@
+package schwabe.code.services.export;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * {@link ExportWriter} for Office Open XML spreadsheets with a single sheet.
+ * <p>The sheet XML is streamed into the zip entry row by row with inline strings, so no shared string table
+ * or workbook model is built in memory. Numbers and booleans are written as typed cells, other values as text.</p>
+ */
+public class XlsxExportWriter implements ExportWriter {
+
+    /**
+     * Maximum number of rows of a sheet, including the header.
+     */
+    public static final int MAX_ROWS = 1_048_576;
+
+    private static final String SPREADSHEET_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String DOCUMENT_RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private int rows;
+
+    public XlsxExportWriter(OutputStream out) throws IOException {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(this.zip, StandardCharsets.UTF_8));
+        writeEntry("[Content_Types].xml", """
+                <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+                <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+                <Default Extension="xml" ContentType="application/xml"/>\
+                <Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>\
+                <Override PartName="/xl/worksheets/sheet1.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>\
+                </Types>""");
+        writeEntry("_rels/.rels", "<Relationships xmlns=\"" + RELATIONSHIPS_NS + "\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + DOCUMENT_RELATIONSHIPS_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+        writeEntry("xl/workbook.xml", "<workbook xmlns=\"" + SPREADSHEET_NS + "\" xmlns:r=\"" + DOCUMENT_RELATIONSHIPS_NS + "\">"
+                + "<sheets><sheet name=\"Export\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+        writeEntry("xl/_rels/workbook.xml.rels", "<Relationships xmlns=\"" + RELATIONSHIPS_NS + "\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + DOCUMENT_RELATIONSHIPS_NS + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                + "</Relationships>");
+        this.zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        this.writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        this.writer.write("<worksheet xmlns=\"" + SPREADSHEET_NS + "\"><sheetData>");
+    }
+
+    private void writeEntry(String name, String xml) throws IOException {
+        this.zip.putNextEntry(new ZipEntry(name));
+        this.writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        this.writer.write(xml);
+        this.writer.flush();
+        this.zip.closeEntry();
+    }
+
+    @Override
+    public void writeHeader(List<String> captions) throws IOException {
+        writeRow(captions);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException if the sheet already has {@link #MAX_ROWS} rows
+     */
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        if (this.rows == MAX_ROWS) {
+            throw new IllegalStateException("A spreadsheet cannot have more than " + MAX_ROWS + " rows");
+        }
+        this.rows++;
+        this.writer.write("<row>");
+        for (var value : values) {
+            if (value == null) {
+                this.writer.write("<c/>");
+            } else if (value instanceof Number number && Double.isFinite(number.doubleValue())) {
+                this.writer.write("<c><v>");
+                this.writer.write(number.toString());
+                this.writer.write("</v></c>");
+            } else if (value instanceof Boolean bool) {
+                this.writer.write(bool ? "<c t=\"b\"><v>1</v></c>" : "<c t=\"b\"><v>0</v></c>");
+            } else {
+                this.writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                writeEscaped(String.valueOf(value));
+                this.writer.write("</t></is></c>");
+            }
+        }
+        this.writer.write("</row>");
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> this.writer.write("&lt;");
+                case '>' -> this.writer.write("&gt;");
+                case '&' -> this.writer.write("&amp;");
+                case '"' -> this.writer.write("&quot;");
+                default -> {
+                    // characters not allowed in XML 1.0 are dropped
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        this.writer.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.writer.write("</sheetData></worksheet>");
+        this.writer.flush();
+        this.zip.closeEntry();
+        this.zip.finish();
+    }
+}
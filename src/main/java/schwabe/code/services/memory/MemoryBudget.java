@@ -0,0 +1,142 @@
+package schwabe.code.services.memory;
+
+import schwabe.code.services.util.SerializationHelper;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Estimates the memory the rows and ids of an AutoGrid retain in the session and derives the page size that keeps
+ * them within a budget.
+ * <p>The sizes of a row and an id are measured once each as the average serialized size of a sample. The counts are
+ * updated by the grid and may be read from any thread, e.g. by metric gauges.</p>
+ * @param <T> The java bean type
+ */
+public class MemoryBudget<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Smallest page size a budget lowers the page size to.
+     */
+    public static final int MIN_PAGE_SIZE = 10;
+
+    /**
+     * Number of rows and ids serialized to measure their size.
+     */
+    private static final int SIZE_SAMPLE = 20;
+
+    private final Class<T> bean;
+    private long budget;
+    private long rowBytes = -1;
+    private long idBytes = -1;
+    private volatile long itemsHeld;
+    private volatile long retainedBytes;
+
+    public MemoryBudget(Class<T> bean) {
+        this.bean = bean;
+    }
+
+    /**
+     * Returns the memory the rows may retain.
+     * @return the budget in bytes, 0 for no limit
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Sets the memory the rows may retain, measured as serialized size.
+     * @param bytes the budget in bytes, 0 for no limit
+     * @throws IllegalArgumentException if the budget is negative or the entity class is not {@link Serializable}
+     */
+    public void setBudget(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Memory budget must not be negative");
+        }
+        if (bytes > 0 && !Serializable.class.isAssignableFrom(this.bean)) {
+            throw new IllegalArgumentException(this.bean.getName() + " must implement Serializable to measure a memory budget");
+        }
+        this.budget = bytes;
+    }
+
+    /**
+     * Returns the number of items held in memory, see {@link #update}.
+     * @return the number of items
+     */
+    public long getItemsHeld() {
+        return itemsHeld;
+    }
+
+    /**
+     * Returns the estimated serialized size of the held items, edited item and ids, see {@link #update}.
+     * @return the size in bytes, 0 until rows of a {@link Serializable} entity class have been measured
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Measures the serialized size of a row once, from a sample of the first loaded rows.
+     * Rows of an entity class that is not {@link Serializable} cannot be measured.
+     * @param items the loaded rows
+     * @return true if the size has been measured by this call, so the page size may change
+     */
+    public boolean measureRows(Collection<T> items) {
+        if (this.rowBytes >= 0 || items.isEmpty() || !Serializable.class.isAssignableFrom(this.bean)) {
+            return false;
+        }
+        var sample = new ArrayList<>(items.stream().limit(SIZE_SAMPLE).toList());
+        this.rowBytes = Math.max(0, SerializationHelper.serializedSize(sample) / sample.size());
+        return true;
+    }
+
+    /**
+     * Measures the serialized size of an id once, from a sample of the first retained ids.
+     * @param ids the retained ids
+     */
+    public void measureIds(List<?> ids) {
+        if (this.idBytes >= 0 || ids.isEmpty()) {
+            return;
+        }
+        var sample = new ArrayList<>(ids.subList(0, Math.min(SIZE_SAMPLE, ids.size())));
+        this.idBytes = Math.max(0, SerializationHelper.serializedSize(sample) / sample.size());
+    }
+
+    /**
+     * Forgets the measured row size, e.g. when the grid retains different rows, so the next rows are measured again.
+     */
+    public void resetRowSize() {
+        this.rowBytes = -1;
+    }
+
+    /**
+     * Updates the held items and their retained size, using the measured size per row and id.
+     * @param items the number of rows and pending changes held in memory
+     * @param edited the number of edited items held besides them
+     * @param ids the number of retained ids
+     */
+    public void update(long items, long edited, long ids) {
+        this.itemsHeld = items;
+        this.retainedBytes = Math.max(0, this.rowBytes) * (items + edited) + Math.max(0, this.idBytes) * ids;
+    }
+
+    /**
+     * Returns the page size, lowered to keep about two pages of rows plus the retained ids within the budget,
+     * but not below {@link #MIN_PAGE_SIZE}.
+     * @param pageSize the configured page size
+     * @param ids the number of retained ids
+     * @return the page size to use
+     */
+    public int pageSize(int pageSize, long ids) {
+        if (this.budget <= 0 || this.rowBytes <= 0) {
+            return pageSize;
+        }
+        var rows = (this.budget - Math.max(0, this.idBytes) * ids) / this.rowBytes;
+        return (int) Math.max(MIN_PAGE_SIZE, Math.min(pageSize, rows / 2));
+    }
+}
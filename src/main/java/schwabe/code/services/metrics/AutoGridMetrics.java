@@ -0,0 +1,131 @@
+package schwabe.code.services.metrics;
+
+import com.vaadin.flow.shared.Registration;
+import org.springframework.util.ClassUtils;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Records timings and counts of the data, render and save paths of AutoGrid.
+ * <p>{@link #get()} returns a Micrometer based implementation if Micrometer is on the classpath and a
+ * {@code MeterRegistry} Spring bean exists, otherwise a no-op implementation. All meters are tagged with
+ * the simple name of the entity class as {@code entity}.</p>
+ */
+public interface AutoGridMetrics {
+
+    /**
+     * Timed operations.
+     */
+    enum Operation {
+        /**
+         * Loading a page, or all items of a non-paging repository.
+         */
+        FETCH,
+        /**
+         * Counting the items matching the filter.
+         */
+        COUNT,
+        /**
+         * Computing the column aggregates of the footer.
+         */
+        AGGREGATE,
+        /**
+         * Saving items through the repository.
+         */
+        SAVE,
+        /**
+         * Updating the in-memory items of the grid after a save or delete, or reloading all of them.
+         * A lazy data provider reloads when the grid requests the rows again, recorded as {@link #FETCH}
+         * and {@link #COUNT}.
+         */
+        REFRESH;
+
+        /**
+         * Returns the name of the timer.
+         * @return the meter name, e.g. {@code autogrid.fetch}
+         */
+        public String getMeterName() {
+            return "autogrid." + name().toLowerCase();
+        }
+    }
+
+    /**
+     * Metrics that record nothing.
+     */
+    AutoGridMetrics NOOP = new AutoGridMetrics() {
+        @Override
+        public <V> V time(Operation operation, Class<?> entityType, Supplier<V> call) {
+            return call.get();
+        }
+
+        @Override
+        public void cellRendered(Class<?> entityType) {
+        }
+
+        @Override
+        public void componentCreated(Class<?> entityType) {
+        }
+
+        @Override
+        public Registration registerInstance(Class<?> entityType, LongSupplier itemsHeld, LongSupplier retainedBytes) {
+            return () -> {
+            };
+        }
+    };
+
+    /**
+     * Returns the metrics for the {@code MeterRegistry} Spring bean, or {@link #NOOP} if there is none.
+     * @return the metrics
+     */
+    static AutoGridMetrics get() {
+        if (!ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry", AutoGridMetrics.class.getClassLoader())) {
+            return NOOP;
+        }
+        return MicrometerAutoGridMetrics.find().orElse(NOOP);
+    }
+
+    /**
+     * Runs the call and records its duration in the timer of the operation.
+     * @param operation the operation
+     * @param entityType the entity class
+     * @param call the call
+     * @return the result of the call
+     */
+    <V> V time(Operation operation, Class<?> entityType, Supplier<V> call);
+
+    /**
+     * Runs the call and records its duration in the timer of the operation.
+     * @param operation the operation
+     * @param entityType the entity class
+     * @param call the call
+     */
+    default void time(Operation operation, Class<?> entityType, Runnable call) {
+        time(operation, entityType, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Increments the {@code autogrid.cells.rendered} counter, called once per rendered collection cell.
+     * @param entityType the entity class
+     */
+    void cellRendered(Class<?> entityType);
+
+    /**
+     * Increments the {@code autogrid.components.created} counter, called once per component created by a renderer.
+     * @param entityType the entity class
+     */
+    void componentCreated(Class<?> entityType);
+
+    /**
+     * Adds an attached AutoGrid instance to the {@code autogrid.instances}, {@code autogrid.items.held}
+     * and {@code autogrid.retained.bytes} gauges.
+     * @param entityType the entity class
+     * @param itemsHeld the number of items the instance currently holds in memory, called from any thread
+     * @param retainedBytes the estimated serialized size of the held items and ids, called from any thread
+     * @return the registration to remove when the instance is detached
+     */
+    Registration registerInstance(Class<?> entityType, LongSupplier itemsHeld, LongSupplier retainedBytes);
+}
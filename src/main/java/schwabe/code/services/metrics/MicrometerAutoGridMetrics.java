@@ -0,0 +1,107 @@
+package schwabe.code.services.metrics;
+
+import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import schwabe.code.services.util.SpringContext;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * {@link AutoGridMetrics} recording to a Micrometer {@link MeterRegistry}.
+ * <p>Only loaded through {@link AutoGridMetrics#get()} when Micrometer is on the classpath. The meters are
+ * registered once per meter name and entity class and reused, recording a cell does not look up the registry.</p>
+ */
+class MicrometerAutoGridMetrics implements AutoGridMetrics {
+
+    private static volatile MicrometerAutoGridMetrics current;
+
+    private final MeterRegistry registry;
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<Instance>> instances = new ConcurrentHashMap<>();
+
+    MicrometerAutoGridMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Returns the metrics of the {@link MeterRegistry} Spring bean, reusing the instance while the bean is the same.
+     */
+    static Optional<AutoGridMetrics> find() {
+        return SpringContext.findBean(MeterRegistry.class).map(registry -> {
+            var metrics = current;
+            if (metrics == null || metrics.registry != registry) {
+                metrics = new MicrometerAutoGridMetrics(registry);
+                current = metrics;
+            }
+            return metrics;
+        });
+    }
+
+    @Override
+    public <V> V time(Operation operation, Class<?> entityType, Supplier<V> call) {
+        return this.timers.computeIfAbsent(new MeterKey(operation.getMeterName(), entityType), key ->
+                Timer.builder(key.name())
+                        .tag("entity", key.entityType().getSimpleName())
+                        .register(this.registry))
+                .record(call);
+    }
+
+    @Override
+    public void cellRendered(Class<?> entityType) {
+        counter("autogrid.cells.rendered", entityType).increment();
+    }
+
+    @Override
+    public void componentCreated(Class<?> entityType) {
+        counter("autogrid.components.created", entityType).increment();
+    }
+
+    private Counter counter(String name, Class<?> entityType) {
+        return this.counters.computeIfAbsent(new MeterKey(name, entityType), key ->
+                Counter.builder(key.name())
+                        .tag("entity", key.entityType().getSimpleName())
+                        .register(this.registry));
+    }
+
+    @Override
+    public Registration registerInstance(Class<?> entityType, LongSupplier itemsHeld, LongSupplier retainedBytes) {
+        var registered = this.instances.computeIfAbsent(entityType, type -> {
+            Set<Instance> set = ConcurrentHashMap.newKeySet();
+            Gauge.builder("autogrid.instances", set, Set::size)
+                    .tag("entity", type.getSimpleName())
+                    .register(this.registry);
+            Gauge.builder("autogrid.items.held", set, values -> values.stream().mapToLong(value -> value.itemsHeld().getAsLong()).sum())
+                    .tag("entity", type.getSimpleName())
+                    .register(this.registry);
+            Gauge.builder("autogrid.retained.bytes", set, values -> values.stream().mapToLong(value -> value.retainedBytes().getAsLong()).sum())
+                    .tag("entity", type.getSimpleName())
+                    .baseUnit("bytes")
+                    .register(this.registry);
+            return set;
+        });
+        var instance = new Instance(itemsHeld, retainedBytes);
+        registered.add(instance);
+        return () -> registered.remove(instance);
+    }
+
+    /**
+     * The gauge values of one registered AutoGrid.
+     */
+    private record Instance(LongSupplier itemsHeld, LongSupplier retainedBytes) {
+    }
+
+    /**
+     * Identifies a registered timer or counter.
+     */
+    private record MeterKey(String name, Class<?> entityType) {
+    }
+}
@@ -0,0 +1,42 @@
+package schwabe.code.services.util;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Static class that provides the default executor for background work of AutoGrid.
+ */
+public class AsyncHelper implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final ExecutorService DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    /**
+     * Returns the shared default executor.
+     * <p>Uses a virtual thread per task if the JDK supports it (Java 21+),
+     * otherwise a cached pool of daemon threads.</p>
+     * @return the executor
+     */
+    public static Executor getDefaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            var counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, "auto-grid-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
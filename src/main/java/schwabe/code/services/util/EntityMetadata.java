@@ -0,0 +1,385 @@
+package schwabe.code.services.util;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Application-wide cache of the reflection data AutoGrid needs for an entity class.
+ * <p>The metadata is computed once per class and shared by all AutoGrid instances and sessions.
+ * Property values are read and written through generated accessors instead of
+ * {@link java.beans.PropertyDescriptor} lookups and reflective calls.</p>
+ * @param <T> The java bean type
+ */
+public final class EntityMetadata<T> {
+
+    private static final ClassValue<EntityMetadata<?>> CACHE = new ClassValue<>() {
+        @Override
+        protected EntityMetadata<?> computeValue(Class<?> type) {
+            return new EntityMetadata<>(type);
+        }
+    };
+
+    private final Class<T> beanType;
+    private final List<Property> declaredProperties;
+    private final Map<String, Property> properties;
+    private final Property idProperty;
+    private final Property versionProperty;
+
+    private EntityMetadata(Class<T> beanType) {
+        this.beanType = beanType;
+        var declared = new ArrayList<Property>();
+        var all = new LinkedHashMap<String, Property>();
+        for (Class<?> type = beanType; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || all.containsKey(field.getName())) {
+                    continue;
+                }
+                var property = new Property(beanType, field);
+                all.put(field.getName(), property);
+                if (type == beanType) {
+                    declared.add(property);
+                }
+            }
+        }
+        this.declaredProperties = List.copyOf(declared);
+        this.properties = Collections.unmodifiableMap(all);
+        this.idProperty = all.values().stream().filter(Property::isId).findFirst().orElse(null);
+        this.versionProperty = all.values().stream().filter(Property::isVersion).findFirst().orElse(null);
+    }
+
+    /**
+     * Returns the cached metadata of the given class, computing it on first access.
+     * @param beanType the entity class
+     * @return the metadata instance
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMetadata<T> of(Class<T> beanType) {
+        return (EntityMetadata<T>) CACHE.get(beanType);
+    }
+
+    /**
+     * Returns the entity class.
+     * @return the class
+     */
+    public Class<T> getBeanType() {
+        return beanType;
+    }
+
+    /**
+     * Returns the properties declared by the entity class itself, in declaration order.
+     * @return unmodifiable list of properties
+     */
+    public List<Property> getDeclaredProperties() {
+        return declaredProperties;
+    }
+
+    /**
+     * Returns the names of the properties declared by the entity class itself, in declaration order.
+     * @return unmodifiable list of names
+     */
+    public List<String> getDeclaredPropertyNames() {
+        return declaredProperties.stream().map(Property::getName).toList();
+    }
+
+    /**
+     * Returns the properties of the entity class and its superclasses.
+     * @return unmodifiable collection of properties
+     */
+    public Collection<Property> getProperties() {
+        return properties.values();
+    }
+
+    /**
+     * Finds a property of the entity class or one of its superclasses.
+     * @param name the field name
+     * @return the property, empty if the class has no such field
+     */
+    public Optional<Property> findProperty(String name) {
+        return Optional.ofNullable(properties.get(name));
+    }
+
+    /**
+     * Returns a property of the entity class or one of its superclasses.
+     * @param name the field name
+     * @return the property
+     * @throws IllegalArgumentException if the class has no such field
+     */
+    public Property getProperty(String name) {
+        return findProperty(name).orElseThrow(() ->
+                new IllegalArgumentException(beanType.getName() + " has no property " + name));
+    }
+
+    /**
+     * Finds the identifier property, annotated with a JPA or Spring Data {@code @Id} or {@code @EmbeddedId}.
+     * @return the id property, empty if the class has none
+     */
+    public Optional<Property> findIdProperty() {
+        return Optional.ofNullable(idProperty);
+    }
+
+    /**
+     * Finds the optimistic locking property, annotated with a JPA or Spring Data {@code @Version}.
+     * @return the version property, empty if the class has none
+     */
+    public Optional<Property> findVersionProperty() {
+        return Optional.ofNullable(versionProperty);
+    }
+
+    /**
+     * Creates a detached shallow copy of an item through its readable and writable properties.
+     * <p>Collections are copied into new lists and sets, so the copy can be saved on another thread
+     * while the item is still shown and edited.</p>
+     * @param item the item to copy
+     * @return the copy
+     */
+    public T copy(T item) {
+        var copy = BeanUtils.instantiateClass(this.beanType);
+        this.properties.values().stream()
+                .filter(property -> property.isReadable() && property.isWritable())
+                .forEach(property -> property.setValue(copy, copyValue(property.getValue(item))));
+        return copy;
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof SortedSet<?> set) {
+            return new TreeSet<>(set);
+        } else if (value instanceof Set<?> set) {
+            return new LinkedHashSet<>(set);
+        } else if (value instanceof Collection<?> collection) {
+            return new ArrayList<>(collection);
+        }
+        return value;
+    }
+
+    /**
+     * Editor component types derived from the field type.
+     */
+    public enum EditorType {
+        CHECKBOX, INTEGER, NUMBER, DATE, DATE_TIME, COLLECTION, TEXT
+    }
+
+    private record SerializedProperty(Class<?> beanType, String name) implements Serializable {
+
+        @Serial
+        private Object readResolve() {
+            return EntityMetadata.of(beanType).getProperty(name);
+        }
+    }
+
+    /**
+     * Cached metadata of a single field.
+     * <p>Serializable, so components and lambdas may hold it: it is written as bean class and field name
+     * and resolved to the cached instance when read.</p>
+     */
+    public static final class Property implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private static final Set<String> ID_ANNOTATIONS = Set.of(
+                "jakarta.persistence.Id",
+                "jakarta.persistence.EmbeddedId",
+                "org.springframework.data.annotation.Id");
+        private static final Set<String> VERSION_ANNOTATIONS = Set.of(
+                "jakarta.persistence.Version",
+                "org.springframework.data.annotation.Version");
+
+        private final Class<?> beanType;
+        private final transient Field field;
+        private final boolean id;
+        private final boolean version;
+        private final String label;
+        private final EditorType editorType;
+        private final transient Function<Object, Object> getter;
+        private final transient BiConsumer<Object, Object> setter;
+
+        private Property(Class<?> beanType, Field field) {
+            this.beanType = beanType;
+            this.field = field;
+            this.id = Arrays.stream(field.getAnnotations())
+                    .anyMatch(annotation -> ID_ANNOTATIONS.contains(annotation.annotationType().getName()));
+            this.version = Arrays.stream(field.getAnnotations())
+                    .anyMatch(annotation -> VERSION_ANNOTATIONS.contains(annotation.annotationType().getName()));
+            this.label = CapitalizeHelper.convertCamelCaseToReadableName(field.getName());
+            this.editorType = editorTypeOf(field.getType());
+            var descriptor = BeanUtils.getPropertyDescriptor(beanType, field.getName());
+            this.getter = descriptor != null && descriptor.getReadMethod() != null
+                    ? createGetter(descriptor.getReadMethod()) : null;
+            this.setter = descriptor != null && descriptor.getWriteMethod() != null
+                    ? createSetter(descriptor.getWriteMethod()) : null;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        @Serial
+        private Object writeReplace() {
+            return new SerializedProperty(beanType, getName());
+        }
+
+        /**
+         * Returns true if this is the identifier of the entity.
+         * @return true if annotated with {@code @Id} or {@code @EmbeddedId}
+         */
+        public boolean isId() {
+            return id;
+        }
+
+        /**
+         * Returns true if this is the optimistic locking version of the entity.
+         * @return true if annotated with {@code @Version}
+         */
+        public boolean isVersion() {
+            return version;
+        }
+
+        public String getName() {
+            return field.getName();
+        }
+
+        public Class<?> getType() {
+            return field.getType();
+        }
+
+        /**
+         * Returns the readable label, see {@link CapitalizeHelper#convertCamelCaseToReadableName(String)}.
+         * @return the label
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        public EditorType getEditorType() {
+            return editorType;
+        }
+
+        public boolean isCollection() {
+            return editorType == EditorType.COLLECTION;
+        }
+
+        public boolean isReadable() {
+            return getter != null;
+        }
+
+        public boolean isWritable() {
+            return setter != null;
+        }
+
+        /**
+         * Reads the property value of the given bean through its getter.
+         * @param bean the bean instance
+         * @return the value
+         */
+        public Object getValue(Object bean) {
+            if (getter == null) {
+                throw new IllegalStateException("Property " + getName() + " has no getter");
+            }
+            return getter.apply(bean);
+        }
+
+        /**
+         * Writes the property value of the given bean through its setter.
+         * @param bean the bean instance
+         * @param value the new value
+         */
+        public void setValue(Object bean, Object value) {
+            if (setter == null) {
+                throw new IllegalStateException("Property " + getName() + " has no setter");
+            }
+            setter.accept(bean, value);
+        }
+
+        private static EditorType editorTypeOf(Class<?> type) {
+            if (type.isAssignableFrom(Boolean.class) || type.getTypeName().equals("boolean")) {
+                return EditorType.CHECKBOX;
+            } else if (type.isAssignableFrom(Integer.class) || type.getTypeName().equals("int")) {
+                return EditorType.INTEGER;
+            } else if (type.isAssignableFrom(Number.class)) {
+                return EditorType.NUMBER;
+            } else if (type.isAssignableFrom(Date.class) || type.isAssignableFrom(LocalDate.class)) {
+                return EditorType.DATE;
+            } else if (type.isAssignableFrom(LocalDateTime.class)) {
+                return EditorType.DATE_TIME;
+            } else if (Collection.class.isAssignableFrom(type)) {
+                return EditorType.COLLECTION;
+            }
+            return EditorType.TEXT;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Function<Object, Object> createGetter(Method method) {
+            try {
+                var lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+                var handle = lookup.unreflect(method);
+                var site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()), method.getDeclaringClass()));
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                return fromHandle(method);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static BiConsumer<Object, Object> createSetter(Method method) {
+            try {
+                var lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+                var handle = lookup.unreflect(method);
+                var site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, method.getDeclaringClass(),
+                                ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0])));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                var handle = unreflect(method);
+                return (bean, value) -> {
+                    try {
+                        handle.invoke(bean, value);
+                    } catch (Throwable t) {
+                        throw new IllegalStateException(t);
+                    }
+                };
+            }
+        }
+
+        private static Function<Object, Object> fromHandle(Method method) {
+            var handle = unreflect(method);
+            return bean -> {
+                try {
+                    return handle.invoke(bean);
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            };
+        }
+
+        private static MethodHandle unreflect(Method method) {
+            try {
+                method.trySetAccessible();
+                return MethodHandles.lookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package schwabe.code.services.util;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A {@link Pageable} that is addressed by a raw row offset instead of a page number.
+ * <p>Vaadin requests data by offset and limit, which are not necessarily aligned to page boundaries.</p>
+ */
+public class OffsetPageRequest implements Pageable, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long offset;
+    private final int limit;
+    private final Sort sort;
+
+    /**
+     * Creates a new request.
+     * @param offset the zero-based index of the first row
+     * @param limit the maximum number of rows, must be greater than zero
+     * @param sort the sort to apply, must not be null
+     */
+    public OffsetPageRequest(long offset, int limit, Sort sort) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+        this.offset = offset;
+        this.limit = limit;
+        this.sort = Objects.requireNonNull(sort);
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (this.offset / this.limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return this.limit;
+    }
+
+    @Override
+    public long getOffset() {
+        return this.offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return this.sort;
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(this.offset + this.limit, this.limit, this.sort);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, this.offset - this.limit), this.limit, this.sort) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, this.limit, this.sort);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * this.limit, this.limit, this.sort);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return this.offset > 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OffsetPageRequest that)) return false;
+        return offset == that.offset && limit == that.limit && sort.equals(that.sort);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, limit, sort);
+    }
+}
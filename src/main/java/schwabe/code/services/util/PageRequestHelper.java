@@ -0,0 +1,45 @@
+package schwabe.code.services.util;
+
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Static class that translates Vaadin data queries to Spring Data requests.
+ */
+public class PageRequestHelper implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Converts the offset, limit and sort orders of a Vaadin {@link Query} into a {@link Pageable}.
+     * @param query the query from the data provider
+     * @return the matching page request
+     */
+    public static Pageable toPageable(Query<?, ?> query) {
+        return new OffsetPageRequest(query.getOffset(), query.getLimit(), toSort(query.getSortOrders()));
+    }
+
+    /**
+     * Converts Vaadin sort orders into a Spring Data {@link Sort}.
+     * @param sortOrders the sort orders of the query, may be null
+     * @return the sort, {@link Sort#unsorted()} if there are no orders
+     */
+    public static Sort toSort(List<QuerySortOrder> sortOrders) {
+        if (sortOrders == null || sortOrders.isEmpty()) {
+            return Sort.unsorted();
+        }
+        return Sort.by(sortOrders.stream()
+                .map(order -> order.getDirection() == SortDirection.DESCENDING
+                        ? Sort.Order.desc(order.getSorted())
+                        : Sort.Order.asc(order.getSorted()))
+                .toList());
+    }
+}
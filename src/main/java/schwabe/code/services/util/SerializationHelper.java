@@ -0,0 +1,46 @@
+package schwabe.code.services.util;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Static class that measures the Java serialization size of session state, the size a replicated session grows by.
+ */
+public class SerializationHelper implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Serializes the object without storing the bytes.
+     * @param object the object
+     * @return the number of bytes, -1 if the object graph is not serializable
+     */
+    public static long serializedSize(Object object) {
+        var counter = new CountingOutputStream();
+        try (var out = new ObjectOutputStream(counter)) {
+            out.writeObject(object);
+        } catch (IOException e) {
+            return -1;
+        }
+        return counter.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 @Component
 public class SpringContext implements ApplicationContextAware {
 
@@ -20,6 +22,19 @@ public class SpringContext implements ApplicationContextAware {
         return context.getBean(beanClass);
     }
 
+    /**
+     * Returns the Spring managed bean instance of the given class type if exactly one exists.
+     * Returns an empty optional otherwise, or if the application context is not available.
+     * @param beanClass the bean type
+     * @return the bean instance
+     */
+    public static <T> Optional<T> findBean(Class<T> beanClass) {
+        if (context == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(context.getBeanProvider(beanClass).getIfUnique());
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext context) throws BeansException {
         // store ApplicationContext reference to access required beans later on
@@ -0,0 +1,80 @@
+package schwabe.code.services.aggregate;
+
+import com.vaadin.flow.component.grid.Grid;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import schwabe.code.services.data.AggregateQuery;
+import schwabe.code.services.data.AutoGridFilter;
+import schwabe.code.services.data.RepositoryAccess;
+import schwabe.code.services.metrics.AutoGridMetrics;
+import schwabe.code.test.Person;
+import schwabe.code.test.PersonRepository;
+import schwabe.code.test.SqlRecorder;
+import schwabe.code.test.TestContext;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AggregateFooterTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    private Grid<Person> grid;
+    private AggregateFooter<Person> footer;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestContext.start(500, 0);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @BeforeEach
+    void createFooter() {
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(null);
+        this.grid = new Grid<>(Person.class);
+        this.footer = new AggregateFooter<>(Person.class, this.grid, access);
+        this.footer.addRow();
+        SqlRecorder.clear();
+    }
+
+    @Test
+    void showsDefaultAggregatesOfTheFilter() {
+        var filter = new AutoGridFilter<Person>();
+        this.footer.update(filter, AutoGridMetrics.NOOP, Locale.US);
+        assertEquals("Sum: 24,750, Avg: 49.5, Min: 0, Max: 99", text("score"));
+        assertEquals("", text("id"));
+
+        filter.setText("city", "City 3");
+        this.footer.update(filter, AutoGridMetrics.NOOP, Locale.US);
+        assertEquals("Sum: 2,400, Avg: 48, Min: 3, Max: 93", text("score"));
+        assertEquals(2, SqlRecorder.statements().size());
+    }
+
+    @Test
+    void queriesAgainOnlyAfterInvalidate() {
+        this.footer.setColumnAggregates("score", List.of(AggregateQuery.Function.MAX));
+        var filter = new AutoGridFilter<Person>();
+        this.footer.update(filter, AutoGridMetrics.NOOP, Locale.US);
+        this.footer.update(filter.copy(), AutoGridMetrics.NOOP, Locale.US);
+        assertEquals(1, SqlRecorder.statements().size());
+
+        this.footer.invalidate();
+        this.footer.update(filter, AutoGridMetrics.NOOP, Locale.US);
+        assertEquals(2, SqlRecorder.statements().size());
+        assertEquals("Max: 99", text("score"));
+    }
+
+    private String text(String column) {
+        return this.footer.getRow().getCell(this.grid.getColumnByKey(column)).getText();
+    }
+}
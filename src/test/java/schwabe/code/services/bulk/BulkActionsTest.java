@@ -0,0 +1,84 @@
+package schwabe.code.services.bulk;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import schwabe.code.services.data.AutoGridFilter;
+import schwabe.code.services.data.RepositoryAccess;
+import schwabe.code.services.metrics.AutoGridMetrics;
+import schwabe.code.test.Person;
+import schwabe.code.test.PersonRepository;
+import schwabe.code.test.TestContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkActionsTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestContext.start(100, 0);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    void updatesAndDeletesSelectedOrMatchingRows() {
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(null);
+        var actions = new BulkActions<>(Person.class, access);
+        actions.checkSupported();
+        var filter = new AutoGridFilter<Person>();
+        filter.setText("city", "City 3");
+
+        assertEquals(2, actions.update(Map.of("score", 500), false, filter, List.of(1L, 2L), AutoGridMetrics.NOOP));
+        assertEquals(10, actions.update(Map.of("score", 500), true, filter, List.of(), AutoGridMetrics.NOOP));
+        var updated = new AutoGridFilter<Person>();
+        updated.setEquals("score", 500);
+        assertEquals(12, access.count(updated));
+
+        assertEquals(10, actions.delete(true, filter, List.of(), AutoGridMetrics.NOOP));
+        assertEquals(1, actions.delete(false, filter, List.of(1L), AutoGridMetrics.NOOP));
+        assertEquals(89, access.count(new AutoGridFilter<>()));
+    }
+
+    @Test
+    void confirmsOnlyFilteredOrSelectedRows() {
+        // the current UI is held weakly, keep a reference until the end of the test
+        var ui = new UI();
+        UI.setCurrent(ui);
+        try {
+            var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+            var actions = new BulkActions<>(Person.class, access);
+            var runs = new AtomicInteger();
+
+            assertNull(actions.confirm("update", true, new AutoGridFilter<>(), 100, runs::incrementAndGet));
+            assertNull(actions.confirm("update", false, new AutoGridFilter<>(), 0, runs::incrementAndGet));
+
+            var filter = new AutoGridFilter<Person>();
+            filter.setText("city", "City 3");
+            var confirm = actions.confirm("update", true, filter, 10, runs::incrementAndGet);
+            assertTrue(confirm.isOpened());
+            assertEquals(0, runs.get());
+
+            ComponentUtil.fireEvent(confirm, new ConfirmDialog.ConfirmEvent(confirm, false));
+            assertEquals(1, runs.get());
+        } finally {
+            UI.setCurrent(null);
+        }
+    }
+}
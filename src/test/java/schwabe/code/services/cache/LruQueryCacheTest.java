@@ -0,0 +1,97 @@
+package schwabe.code.services.cache;
+
+import org.junit.jupiter.api.Test;
+import schwabe.code.services.data.AutoGridFilter;
+import schwabe.code.test.Person;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LruQueryCacheTest {
+
+    private static final QueryCacheKey PERSONS = QueryCacheKey.count(Person.class, null);
+    private static final QueryCacheKey STRINGS = QueryCacheKey.count(String.class, null);
+
+    @Test
+    void evictsLeastRecentlyUsedResult() {
+        var cache = new LruQueryCache(2, Duration.ofMinutes(1));
+        var loads = new AtomicInteger();
+        var first = count("first");
+        var second = count("second");
+        var third = count("third");
+
+        cache.get(first, loads::incrementAndGet);
+        cache.get(second, loads::incrementAndGet);
+        // reading the first key makes the second one the eldest
+        assertEquals(1, cache.get(first, loads::incrementAndGet));
+        cache.get(third, loads::incrementAndGet);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get(first, loads::incrementAndGet));
+        assertEquals(3, cache.get(third, loads::incrementAndGet));
+        assertEquals(4, cache.get(second, loads::incrementAndGet));
+        assertThrows(IllegalArgumentException.class, () -> new LruQueryCache(0, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void reloadsExpiredResult() throws InterruptedException {
+        var loads = new AtomicInteger();
+        var expired = new LruQueryCache(10, Duration.ZERO);
+        assertEquals(1, expired.get(PERSONS, loads::incrementAndGet));
+        assertEquals(2, expired.get(PERSONS, loads::incrementAndGet));
+
+        var cache = new LruQueryCache(10, Duration.ofMillis(100));
+        assertEquals(3, cache.get(PERSONS, loads::incrementAndGet));
+        Thread.sleep(150);
+
+        assertEquals(4, cache.get(PERSONS, loads::incrementAndGet));
+    }
+
+    @Test
+    void invalidatesOnlyTheEntityClass() {
+        var cache = new LruQueryCache(10, Duration.ofMinutes(1));
+        var loads = new AtomicInteger();
+        cache.get(PERSONS, loads::incrementAndGet);
+        cache.get(STRINGS, loads::incrementAndGet);
+
+        cache.invalidate(Person.class);
+
+        assertEquals(3, cache.get(PERSONS, loads::incrementAndGet));
+        assertEquals(2, cache.get(STRINGS, loads::incrementAndGet));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void doesNotCacheResultLoadedDuringInvalidation() {
+        var cache = new LruQueryCache(10, Duration.ofMinutes(1));
+        var loads = new AtomicInteger();
+
+        // a save of another session invalidates the class while the query runs, its rows may be stale
+        assertEquals(1, cache.get(PERSONS, () -> {
+            cache.invalidate(Person.class);
+            return loads.incrementAndGet();
+        }));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.get(PERSONS, () -> {
+            cache.clear();
+            return loads.incrementAndGet();
+        }));
+        assertEquals(0, cache.size());
+        // an invalidation of another class does not affect the result
+        assertEquals(3, cache.get(PERSONS, () -> {
+            cache.invalidate(String.class);
+            return loads.incrementAndGet();
+        }));
+        assertEquals(3, cache.get(PERSONS, loads::incrementAndGet));
+    }
+
+    private static QueryCacheKey count(String city) {
+        var filter = new AutoGridFilter<Person>();
+        filter.setText("city", city);
+        return QueryCacheKey.count(Person.class, filter);
+    }
+}
@@ -0,0 +1,48 @@
+package schwabe.code.services.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.data.AutoGridFilter;
+import schwabe.code.services.util.OffsetPageRequest;
+import schwabe.code.test.Person;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class QueryCacheKeyTest {
+
+    @Test
+    void identifiesQueryBySnapshotOfTheFilter() {
+        var filter = new AutoGridFilter<Person>();
+        filter.setText("city", "City 1");
+        var page = new OffsetPageRequest(20, 10, Sort.by("name"));
+        var key = QueryCacheKey.page(Person.class, filter, page);
+
+        assertEquals(key, QueryCacheKey.page(Person.class, filter.copy(), new OffsetPageRequest(20, 10, Sort.by("name"))));
+        assertEquals(key.hashCode(), QueryCacheKey.page(Person.class, filter, page).hashCode());
+
+        // the key keeps the filter of the query, later changes make a different key
+        filter.setText("city", "City 2");
+        assertNotEquals(key, QueryCacheKey.page(Person.class, filter, page));
+        var expected = new AutoGridFilter<Person>();
+        expected.setText("city", "City 1");
+        assertEquals(expected, key.filter());
+        assertEquals(QueryCacheKey.count(Person.class, null), QueryCacheKey.count(Person.class, new AutoGridFilter<>()));
+    }
+
+    @Test
+    void separatesKindsOfResults() {
+        var page = new OffsetPageRequest(0, 10, Sort.unsorted());
+
+        assertNotEquals(QueryCacheKey.page(Person.class, null, page), QueryCacheKey.page(Person.class, null, new OffsetPageRequest(10, 10, Sort.unsorted())));
+        assertNotEquals(QueryCacheKey.page(Person.class, null, page), QueryCacheKey.page(Person.class, null, new OffsetPageRequest(0, 10, Sort.by("id"))));
+        assertNotEquals(QueryCacheKey.page(Person.class, null, page), QueryCacheKey.page(Person.class, null, page, List.of("name")));
+        assertNotEquals(QueryCacheKey.page(Person.class, null, page, List.of("tags")), QueryCacheKey.pageWithCollections(Person.class, null, page, List.of("tags")));
+        assertNotEquals(QueryCacheKey.count(Person.class, null), QueryCacheKey.count(String.class, null));
+        assertNotEquals(QueryCacheKey.count(Person.class, null), QueryCacheKey.aggregate(Person.class, null, List.of("SUM(score)")));
+        // the order of the selected properties does not matter
+        assertEquals(QueryCacheKey.page(Person.class, null, page, List.of("name", "city")), QueryCacheKey.page(Person.class, null, page, List.of("city", "name")));
+    }
+}
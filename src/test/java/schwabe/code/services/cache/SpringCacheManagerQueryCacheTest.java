@@ -0,0 +1,65 @@
+package schwabe.code.services.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import schwabe.code.test.Person;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SpringCacheManagerQueryCacheTest {
+
+    private static final QueryCacheKey PERSONS = QueryCacheKey.count(Person.class, null);
+    private static final QueryCacheKey STRINGS = QueryCacheKey.count(String.class, null);
+
+    @Test
+    void cachesPerEntityClass() {
+        var cacheManager = new ConcurrentMapCacheManager();
+        var cache = new SpringCacheManagerQueryCache(cacheManager);
+        var loads = new AtomicInteger();
+
+        assertEquals(1, cache.get(PERSONS, loads::incrementAndGet));
+        assertEquals(1, cache.get(PERSONS, loads::incrementAndGet));
+        assertEquals(2, cache.get(STRINGS, loads::incrementAndGet));
+        assertEquals(1, cacheManager.getCache("auto-grid:" + Person.class.getName()).get(PERSONS).get());
+
+        cache.invalidate(Person.class);
+
+        assertEquals(3, cache.get(PERSONS, loads::incrementAndGet));
+        assertEquals(2, cache.get(STRINGS, loads::incrementAndGet));
+        cache.clear();
+        assertEquals(4, cache.get(STRINGS, loads::incrementAndGet));
+    }
+
+    @Test
+    void loadsWithoutCacheOfTheEntityClass() {
+        var cacheManager = new ConcurrentMapCacheManager("other");
+        var cache = new SpringCacheManagerQueryCache(cacheManager);
+        var loads = new AtomicInteger();
+
+        assertEquals(1, cache.get(PERSONS, loads::incrementAndGet));
+        assertEquals(2, cache.get(PERSONS, loads::incrementAndGet));
+        assertNull(cacheManager.getCache("auto-grid:" + Person.class.getName()));
+    }
+
+    @Test
+    void doesNotCacheResultLoadedDuringInvalidation() {
+        var cacheManager = new ConcurrentMapCacheManager();
+        var cache = new SpringCacheManagerQueryCache(cacheManager);
+        var loads = new AtomicInteger();
+
+        assertEquals(1, cache.get(PERSONS, () -> {
+            cache.invalidate(Person.class);
+            return loads.incrementAndGet();
+        }));
+        assertEquals(2, cache.get(PERSONS, () -> {
+            cache.clear();
+            return loads.incrementAndGet();
+        }));
+        assertNull(cacheManager.getCache("auto-grid:" + Person.class.getName()).get(PERSONS));
+        assertEquals(3, cache.get(PERSONS, loads::incrementAndGet));
+        assertEquals(3, cache.get(PERSONS, loads::incrementAndGet));
+    }
+}
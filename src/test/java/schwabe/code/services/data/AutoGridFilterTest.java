@@ -0,0 +1,37 @@
+package schwabe.code.services.data;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ExampleMatcher;
+import schwabe.code.test.Person;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutoGridFilterTest {
+
+    @Test
+    void exampleIgnoresAllPathsButTheCriteria() {
+        var filter = new AutoGridFilter<Person>();
+        filter.setText("city", "City 1");
+        filter.setEquals("active", true);
+        filter.setRange("score", 10, 20);
+
+        var example = filter.toExample(Person.class);
+
+        // the initialized tags set and the primitive score have probe values but no criterion
+        assertEquals(Set.of("id", "version", "name", "score", "tags"), example.getMatcher().getIgnoredPaths());
+        assertEquals("City 1", example.getProbe().getCity());
+        assertTrue(example.getProbe().isActive());
+        assertEquals(ExampleMatcher.StringMatcher.CONTAINING,
+                example.getMatcher().getPropertySpecifiers().getForPath("city").getStringMatcher());
+    }
+
+    @Test
+    void emptyExampleMatchesEverything() {
+        var example = new AutoGridFilter<Person>().toExample(Person.class);
+
+        assertEquals(Set.of("id", "version", "name", "city", "score", "active", "tags"), example.getMatcher().getIgnoredPaths());
+    }
+}
@@ -0,0 +1,70 @@
+package schwabe.code.services.data;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import schwabe.code.test.Person;
+import schwabe.code.test.PersonRepository;
+import schwabe.code.test.TestContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSaverTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestContext.start(20, 0);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    void savesAllBatches() {
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(null);
+        var items = access.findAllById(List.of(1L, 2L, 3L, 4L, 5L), List.of());
+        items.forEach(person -> person.setCity("Saved"));
+
+        var result = new BatchSaver<>(access, 2).save(items);
+
+        assertEquals(5, result.saved().size());
+        assertTrue(result.failed().isEmpty());
+        items.forEach(person -> assertEquals(1L, result.saved().get(person).getVersion()));
+        assertEquals(5, TestContext.jdbc(context).queryForObject(
+                "SELECT COUNT(*) FROM Person WHERE city = 'Saved' AND version = 1", Integer.class));
+    }
+
+    @Test
+    void reportsVersionConflictAndSavesTheOtherRowsOfTheBatch() {
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(null);
+        var items = access.findAllById(List.of(11L, 12L, 13L), List.of());
+        items.forEach(person -> person.setName("Changed " + person.getId()));
+        var stale = items.get(1);
+        // another user saves row 12 after it has been loaded
+        TestContext.jdbc(context).update("UPDATE Person SET name = 'Other', version = version + 1 WHERE id = 12");
+
+        var result = new BatchSaver<>(access, 10).save(items);
+
+        // the failed batch is saved row by row, only the stale row fails
+        assertEquals(2, result.saved().size());
+        assertEquals(List.of(stale), result.conflicts());
+        assertSame(stale, result.failed().keySet().iterator().next());
+        assertInstanceOf(OptimisticLockingFailureException.class, result.failed().get(stale));
+        var names = TestContext.jdbc(context).queryForList(
+                "SELECT name FROM Person WHERE id IN (11, 12, 13) ORDER BY id", String.class);
+        assertEquals(List.of("Changed 11", "Other", "Changed 13"), names);
+    }
+}
@@ -0,0 +1,105 @@
+package schwabe.code.services.data;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.util.OffsetPageRequest;
+import schwabe.code.test.Person;
+import schwabe.code.test.PersonRepository;
+import schwabe.code.test.SqlRecorder;
+import schwabe.code.test.TestContext;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static schwabe.code.services.data.RepositoryAccessTest.ids;
+
+class KeysetPagerTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestContext.start(200, 2);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @BeforeEach
+    void clearStatements() {
+        SqlRecorder.clear();
+    }
+
+    @Test
+    void scrollsPagesWithCollectionsInConstantQueries() {
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(null);
+        var pager = new KeysetPager<>(access);
+        var collections = access.getCollectionsToFetch(List.of("name"));
+        assertEquals(List.of("tags"), collections);
+
+        var first = pager.fetch(new OffsetPageRequest(0, 50, Sort.unsorted()), null, collections);
+        SqlRecorder.clear();
+        var second = pager.fetch(new OffsetPageRequest(50, 50, Sort.unsorted()), null, collections);
+
+        assertEquals(LongStream.rangeClosed(1, 50).boxed().toList(), ids(first));
+        assertEquals(LongStream.rangeClosed(51, 100).boxed().toList(), ids(second));
+        assertTrue(second.stream().allMatch(person -> person.getTags().size() == 2));
+        // the ids of the page seek past the last id, then the entities are loaded with their tags
+        var statements = SqlRecorder.statements();
+        assertEquals(2, statements.size(), statements::toString);
+        assertTrue(statements.get(0).contains(">?"), statements::toString);
+    }
+
+    @Test
+    void scrollsDescendingSortWithCollections() {
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(null);
+        var pager = new KeysetPager<>(access);
+        var filter = new AutoGridFilter<Person>();
+        filter.setText("city", "City 3");
+        var sort = Sort.by(Sort.Order.desc("score"), Sort.Order.asc("name"));
+
+        pager.fetch(new OffsetPageRequest(0, 5, sort), filter, List.of("tags"));
+        var second = pager.fetch(new OffsetPageRequest(5, 5, sort), filter, List.of("tags"));
+
+        // each score is shared by two ids, "Name 193" sorts before "Name 93"
+        assertEquals(List.of(73L, 163L, 63L, 153L, 53L), ids(second));
+        assertTrue(second.stream().allMatch(person -> person.getTags().size() == 2));
+    }
+
+    @Test
+    void keepsRowsWithNullSortValues() {
+        var jdbc = TestContext.jdbc(context);
+        jdbc.update("UPDATE Person SET name = NULL WHERE MOD(id, 3) = 0");
+        try {
+            var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+            access.setQueryCache(null);
+            var pager = new KeysetPager<>(access);
+            // descending order sorts the null names last, behind every keyset boundary
+            var sort = Sort.by(Sort.Order.desc("name"));
+            assertFalse(access.supportsKeysetPaging(sort));
+            assertTrue(access.supportsKeysetPaging(Sort.by(Sort.Order.desc("score"))));
+
+            var seen = new HashSet<Long>();
+            for (int offset = 0; offset < 200; offset += 30) {
+                seen.addAll(ids(pager.fetch(new OffsetPageRequest(offset, 30, sort), null, List.of())));
+            }
+
+            assertEquals(200, seen.size());
+            assertTrue(SqlRecorder.statements().stream().noneMatch(sql -> sql.contains("<?")), SqlRecorder.statements()::toString);
+        } finally {
+            jdbc.update("UPDATE Person SET name = 'Name ' || id");
+        }
+    }
+}
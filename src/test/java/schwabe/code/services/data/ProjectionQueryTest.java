@@ -0,0 +1,63 @@
+package schwabe.code.services.data;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.util.OffsetPageRequest;
+import schwabe.code.test.Person;
+import schwabe.code.test.TestContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectionQueryTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestContext.start(10, 0);
+        var jdbc = TestContext.jdbc(context);
+        jdbc.update("ALTER TABLE Person ALTER COLUMN score SET NULL");
+        jdbc.update("ALTER TABLE Person ALTER COLUMN active SET NULL");
+        jdbc.update("UPDATE Person SET score = NULL, active = NULL, city = NULL WHERE id = 2");
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    void nullColumnsLeavePrimitivesAtTheirDefault() {
+        var entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        try {
+            var items = new ProjectionQuery<>(Person.class).fetch(entityManager, null,
+                    new OffsetPageRequest(1, 2, Sort.by("id")), List.of("name", "city", "score", "active"));
+
+            assertEquals(2, items.size());
+            var nulls = items.get(0);
+            assertEquals(2L, nulls.getId());
+            assertEquals("Name 2", nulls.getName());
+            assertNull(nulls.getCity());
+            assertEquals(0, nulls.getScore());
+            assertFalse(nulls.isActive());
+
+            var values = items.get(1);
+            assertEquals(3L, values.getId());
+            assertEquals("City 3", values.getCity());
+            assertEquals(3, values.getScore());
+            assertFalse(values.isActive());
+            assertTrue(items.stream().allMatch(item -> item.getVersion() == null));
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package schwabe.code.services.data;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.cache.LruQueryCache;
+import schwabe.code.services.util.OffsetPageRequest;
+import schwabe.code.test.Person;
+import schwabe.code.test.PersonRepository;
+import schwabe.code.test.SqlRecorder;
+import schwabe.code.test.TestContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryCacheInvalidationTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestContext.start(100, 0);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @BeforeEach
+    void clearStatements() {
+        SqlRecorder.clear();
+    }
+
+    @Test
+    void reloadsAfterSaveDeleteAndBulkOperations() {
+        var cache = new LruQueryCache(100, Duration.ofMinutes(1));
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(cache);
+        var filter = new AutoGridFilter<Person>();
+        filter.setText("city", "City 1");
+        var page = new OffsetPageRequest(0, 5, Sort.by("id"));
+
+        assertEquals(10, access.count(filter));
+        access.fetch(page, filter);
+        SqlRecorder.clear();
+        assertEquals(10, access.count(filter));
+        access.fetch(page, filter);
+        assertEquals(List.of(), SqlRecorder.statements());
+
+        var person = access.findById(1L).orElseThrow();
+        person.setCity("City 2");
+        access.save(person);
+        assertEquals(9, access.count(filter));
+        assertEquals(List.of(11L, 21L, 31L, 41L, 51L), RepositoryAccessTest.ids(access.fetch(page, filter)));
+
+        access.delete(access.findById(11L).orElseThrow());
+        assertEquals(8, access.count(filter));
+
+        access.bulkUpdateByIds(Map.of("city", "City 3"), List.of(21L));
+        assertEquals(7, access.count(filter));
+
+        access.bulkDeleteMatching(filter);
+        assertEquals(0, access.count(filter));
+        assertEquals(List.of(), access.fetch(page, filter));
+    }
+}
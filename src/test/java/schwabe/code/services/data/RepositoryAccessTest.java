@@ -0,0 +1,116 @@
+package schwabe.code.services.data;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.util.OffsetPageRequest;
+import schwabe.code.test.Person;
+import schwabe.code.test.PersonExampleRepository;
+import schwabe.code.test.PersonRepository;
+import schwabe.code.test.SqlRecorder;
+import schwabe.code.test.TestContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositoryAccessTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestContext.start(500, 2);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @BeforeEach
+    void clearStatements() {
+        SqlRecorder.clear();
+    }
+
+    @Test
+    void fetchDeepPageRunsNoCountQuery() {
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(null);
+
+        var items = access.fetch(new OffsetPageRequest(100, 10, Sort.by("id")), null);
+
+        assertEquals(LongStream.rangeClosed(101, 110).boxed().toList(), ids(items));
+        assertEquals(0, SqlRecorder.count("select count"));
+    }
+
+    @Test
+    void fetchFilteredPageRunsNoCountQuery() {
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(null);
+        var filter = new AutoGridFilter<Person>();
+        filter.setText("city", "City 3");
+
+        var items = access.fetch(new OffsetPageRequest(10, 5, Sort.by("id")), filter);
+
+        assertEquals(List.of(103L, 113L, 123L, 133L, 143L), ids(items));
+        assertEquals(0, SqlRecorder.count("select count"));
+    }
+
+    @Test
+    void pagesThroughEqualSortValuesWithoutRepeatingRows() {
+        var access = new RepositoryAccess<>(Person.class, PersonRepository.class);
+        access.setQueryCache(null);
+        var seen = new ArrayList<Long>();
+
+        // 10 cities with 50 rows each, pages of 7 rows end inside a city
+        for (int offset = 0; offset < 500; offset += 7) {
+            seen.addAll(ids(access.fetch(new OffsetPageRequest(offset, 7, Sort.by("city")), null)));
+        }
+
+        assertEquals(500, seen.size());
+        assertEquals(500, new HashSet<>(seen).size());
+        assertTrue(SqlRecorder.statements().get(0).matches(".*order by \\w+\\.city,\\w+\\.id.*"), SqlRecorder.statements()::toString);
+    }
+
+    @Test
+    void queryByExampleRepositoryFetchesPages() {
+        var access = new RepositoryAccess<>(Person.class, PersonExampleRepository.class);
+        access.setQueryCache(null);
+        assertQueryByExamplePages(access);
+    }
+
+    @Test
+    void queryByExampleRepositoryFetchesPagesWithoutEntityManager() {
+        var access = new RepositoryAccess<>(Person.class, PersonExampleRepository.class) {
+            @Override
+            public EntityManager getEntityManager() {
+                return null;
+            }
+        };
+        access.setQueryCache(null);
+        assertQueryByExamplePages(access);
+    }
+
+    private static void assertQueryByExamplePages(RepositoryAccess<Person, Long> access) {
+        assertTrue(access.isPageable());
+        assertEquals(List.of(21L, 22L, 23L), ids(access.fetch(new OffsetPageRequest(20, 3, Sort.by("id")), null)));
+
+        var filter = new AutoGridFilter<Person>();
+        filter.setText("city", "City 3");
+        assertEquals(List.of(13L, 23L), ids(access.fetch(new OffsetPageRequest(1, 2, Sort.by("id")), filter)));
+        assertEquals(50, access.count(filter));
+    }
+
+    static List<Long> ids(List<Person> items) {
+        return items.stream().map(Person::getId).toList();
+    }
+}
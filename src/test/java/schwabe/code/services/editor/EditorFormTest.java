@@ -0,0 +1,135 @@
+package schwabe.code.services.editor;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.formlayout.FormLayout;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.textfield.IntegerField;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.function.SerializableFunction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import schwabe.code.AutoGrid;
+import schwabe.code.services.metrics.AutoGridMetrics;
+import schwabe.code.services.util.EntityMetadata;
+import schwabe.code.test.Person;
+import schwabe.code.test.PersonRepository;
+import schwabe.code.test.TestContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EditorFormTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestContext.start(20, 1);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    void buildsOnceAndReusesReleasedForm() {
+        var ui = new UI();
+        var created = new AtomicInteger();
+        SerializableFunction<EntityMetadata.Property, Component> fieldFactory = property -> {
+            created.incrementAndGet();
+            return createField(property);
+        };
+        var first = new EditorForm<>(Person.class, new Div());
+        assertNull(first.getBinder());
+
+        first.ensure(Optional.of(ui), "person", fieldFactory, AutoGridMetrics.NOOP);
+        var binder = first.getBinder();
+        first.ensure(Optional.of(ui), "person", fieldFactory, AutoGridMetrics.NOOP);
+        assertEquals(EntityMetadata.of(Person.class).getDeclaredProperties().size(), created.get());
+        assertSame(binder, first.getBinder());
+
+        first.setItem(new Person(), Map.of());
+        first.release(ui, "person");
+        assertNull(first.getBinder());
+        assertEquals(1, EditorPool.of(ui).size());
+        assertNull(binder.getBean());
+
+        // another instance with the same key takes the released form instead of building one
+        var second = new EditorForm<>(Person.class, new Div());
+        second.ensure(Optional.of(ui), "person", fieldFactory, AutoGridMetrics.NOOP);
+        assertSame(binder, second.getBinder());
+        assertEquals(0, EditorPool.of(ui).size());
+        assertEquals(7, created.get());
+
+        // a different key or a detached instance builds its own form
+        new EditorForm<>(Person.class, new Div()).ensure(Optional.of(ui), "other", fieldFactory, AutoGridMetrics.NOOP);
+        new EditorForm<>(Person.class, new Div()).ensure(Optional.empty(), "person", fieldFactory, AutoGridMetrics.NOOP);
+        assertEquals(21, created.get());
+    }
+
+    @Test
+    void autoGridBuildsEditorOnFirstEditAndReleasesItOnDetach() {
+        var ui = new UI();
+        UI.setCurrent(ui);
+        try {
+            var first = new AutoGrid<>(Person.class, PersonRepository.class);
+            ui.add(first);
+            assertEquals(List.of(), forms(first));
+
+            first.getGrid().select(first.getGrid().getLazyDataView().getItems().findFirst().orElseThrow());
+            var form = forms(first);
+            assertEquals(1, form.size());
+            var idField = descendants(form.get(0)).filter(TextField.class::isInstance).map(TextField.class::cast)
+                    .filter(field -> "Id".equals(field.getLabel())).findFirst().orElseThrow();
+            assertEquals("1", idField.getValue());
+            assertTrue(idField.isReadOnly());
+
+            ui.remove(first);
+            assertEquals(List.of(), forms(first));
+            assertEquals(1, EditorPool.of(ui).size());
+
+            var second = new AutoGrid<>(Person.class, PersonRepository.class);
+            ui.add(second);
+            assertEquals(List.of(), forms(second));
+            assertEquals(1, EditorPool.of(ui).size());
+
+            second.editNewItem();
+            assertSame(form.get(0), forms(second).get(0));
+            assertEquals(0, EditorPool.of(ui).size());
+            assertEquals("", idField.getValue());
+        } finally {
+            UI.setCurrent(null);
+        }
+    }
+
+    private static List<FormLayout> forms(Component component) {
+        return descendants(component).filter(FormLayout.class::isInstance).map(FormLayout.class::cast).toList();
+    }
+
+    private static Stream<Component> descendants(Component component) {
+        return Stream.concat(Stream.of(component), component.getChildren().flatMap(EditorFormTest::descendants));
+    }
+
+    private static Component createField(EntityMetadata.Property property) {
+        return switch (property.getEditorType()) {
+            case CHECKBOX -> new Checkbox(property.getLabel());
+            case INTEGER -> new IntegerField(property.getLabel());
+            case COLLECTION -> new ComboBox<String>(property.getLabel());
+            default -> new TextField(property.getLabel());
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package schwabe.code.services.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EntityChangeBatchTest {
+
+    @Test
+    void loadsEachIdOncePerRound() {
+        var round = new HashMap<Object, Map<Object, Object>>();
+        var first = new EntityChangeBatch(List.of(), round);
+        var second = new EntityChangeBatch(List.of(), round);
+        var queries = new ArrayList<List<Long>>();
+        Function<List<Long>, List<String>> loader = ids -> {
+            queries.add(ids);
+            // id 3 no longer exists
+            return ids.stream().filter(id -> id != 3).map(id -> "row " + id).toList();
+        };
+
+        var firstLoad = first.load("rows", List.of(1L, 2L, 3L), loader, row -> Long.valueOf(row.substring(4)));
+        var secondLoad = second.load("rows", List.of(2L, 3L, 4L), loader, row -> Long.valueOf(row.substring(4)));
+
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L)), queries);
+        assertEquals(Map.of(1L, "row 1", 2L, "row 2"), firstLoad);
+        assertEquals(Map.of(2L, "row 2", 4L, "row 4"), secondLoad);
+    }
+
+    @Test
+    void loadsSeparatelyPerKey() {
+        var round = new HashMap<Object, Map<Object, Object>>();
+        var queries = new ArrayList<List<Long>>();
+        Function<List<Long>, List<Long>> loader = ids -> {
+            queries.add(ids);
+            return ids;
+        };
+
+        new EntityChangeBatch(List.of(), round).load("without collections", List.of(1L), loader, Function.identity());
+        new EntityChangeBatch(List.of(), round).load("with collections", List.of(1L), loader, Function.identity());
+
+        assertEquals(2, queries.size());
+    }
+}
@@ -0,0 +1,35 @@
+package schwabe.code.services.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvExportWriterTest {
+
+    @Test
+    void escapesFormulas() throws IOException {
+        assertEquals("'=SUM(A1:A2),'+1,'-2,'@cmd,'\tx,\"'\rx\"\r\n",
+                write(List.of("=SUM(A1:A2)", "+1", "-2", "@cmd", "\tx", "\rx")));
+    }
+
+    @Test
+    void writesNumbersAndPlainText() throws IOException {
+        assertEquals("-5,-1.5,text,,a=b,\"x,y\",\"say \"\"hi\"\"\"\r\n",
+                write(Arrays.asList(-5, new BigDecimal("-1.5"), "text", null, "a=b", "x,y", "say \"hi\"")));
+    }
+
+    private static String write(List<?> values) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new CsvExportWriter(out);
+        writer.writeRow(values);
+        writer.finish();
+        return out.toString(StandardCharsets.UTF_8).substring(1);
+    }
+}
@@ -0,0 +1,84 @@
+package schwabe.code.services.export;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Sort;
+import schwabe.code.services.data.AutoGridFilter;
+import schwabe.code.test.Person;
+import schwabe.code.test.PersonRepository;
+import schwabe.code.test.TestContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GridExporterTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestContext.start(GridExporter.CHUNK_SIZE + 5, 1);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    void writesAllChunksInOrder() throws IOException {
+        var lines = export(new AutoGridFilter<>(), false);
+
+        assertEquals(GridExporter.CHUNK_SIZE + 6, lines.size());
+        assertEquals("Id,Name,Tags", lines.get(0));
+        assertEquals("1,Name 1,Tag 1", lines.get(1));
+        assertEquals((GridExporter.CHUNK_SIZE + 5) + ",Name " + (GridExporter.CHUNK_SIZE + 5) + ",Tag 1",
+                lines.get(lines.size() - 1));
+    }
+
+    @Test
+    void writesFilteredProjection() throws IOException {
+        var filter = new AutoGridFilter<Person>();
+        filter.setText("city", "City 7");
+
+        var lines = export(filter, true);
+
+        assertEquals(1 + (GridExporter.CHUNK_SIZE + 5) / 10, lines.size());
+        assertEquals("7,Name 7,Tag 1", lines.get(1));
+    }
+
+    @Test
+    void writesRowsWithNullSortValues() throws IOException {
+        var jdbc = TestContext.jdbc(context);
+        jdbc.update("UPDATE Person SET name = NULL WHERE MOD(id, 3) = 0");
+        try {
+            // descending order sorts the null names last, behind every chunk boundary
+            var lines = export(new AutoGridFilter<>(), false, Sort.by(Sort.Order.desc("name"), Sort.Order.asc("id")));
+
+            assertEquals(GridExporter.CHUNK_SIZE + 6, lines.size());
+            assertEquals(GridExporter.CHUNK_SIZE + 5, lines.stream().skip(1).distinct().count());
+            assertEquals("3,,Tag 1", lines.get(lines.size() - (GridExporter.CHUNK_SIZE + 5) / 3));
+        } finally {
+            jdbc.update("UPDATE Person SET name = 'Name ' || id");
+        }
+    }
+
+    private static List<String> export(AutoGridFilter<Person> filter, boolean projection) throws IOException {
+        return export(filter, projection, Sort.by("id"));
+    }
+
+    private static List<String> export(AutoGridFilter<Person> filter, boolean projection, Sort sort) throws IOException {
+        var snapshot = new ExportSnapshot<Person, Long>(List.of("id", "name", "tags"), List.of("Id", "Name", "Tags"),
+                Map.of(), sort, filter, null, null, projection, true);
+        var out = new ByteArrayOutputStream();
+        new GridExporter<>(Person.class, PersonRepository.class).write(snapshot, new CsvExportWriter(out));
+        return out.toString(StandardCharsets.UTF_8).substring(1).lines().toList();
+    }
+}
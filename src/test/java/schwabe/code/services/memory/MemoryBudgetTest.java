@@ -0,0 +1,53 @@
+package schwabe.code.services.memory;
+
+import org.junit.jupiter.api.Test;
+import schwabe.code.services.util.SerializationHelper;
+import schwabe.code.test.Person;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryBudgetTest {
+
+    @Test
+    void lowersPageSizeToTwoPagesWithinBudget() {
+        var budget = new MemoryBudget<>(String.class);
+        var rows = new ArrayList<>(Collections.nCopies(20, "x".repeat(1000)));
+        var rowBytes = SerializationHelper.serializedSize(rows) / rows.size();
+
+        budget.setBudget(rowBytes * 60);
+        assertEquals(50, budget.pageSize(50, 0));
+        assertTrue(budget.measureRows(rows));
+        assertFalse(budget.measureRows(rows));
+        assertEquals(30, budget.pageSize(50, 0));
+
+        budget.setBudget(rowBytes * 4);
+        assertEquals(MemoryBudget.MIN_PAGE_SIZE, budget.pageSize(50, 0));
+
+        budget.update(3, 1, 0);
+        assertEquals(3, budget.getItemsHeld());
+        assertEquals(rowBytes * 4, budget.getRetainedBytes());
+    }
+
+    @Test
+    void countsRetainedIds() {
+        var budget = new MemoryBudget<>(String.class);
+        var ids = List.of(1L, 2L, 3L);
+        budget.measureIds(ids);
+        budget.update(0, 0, ids.size());
+        assertEquals(SerializationHelper.serializedSize(new ArrayList<>(ids)) / ids.size() * 3, budget.getRetainedBytes());
+    }
+
+    @Test
+    void rejectsInvalidBudgets() {
+        assertThrows(IllegalArgumentException.class, () -> new MemoryBudget<>(String.class).setBudget(-1));
+        assertThrows(IllegalArgumentException.class, () -> new MemoryBudget<>(Person.class).setBudget(1000));
+        new MemoryBudget<>(Person.class).setBudget(0);
+    }
+}
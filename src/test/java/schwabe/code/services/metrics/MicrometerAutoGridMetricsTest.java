@@ -0,0 +1,32 @@
+package schwabe.code.services.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MicrometerAutoGridMetricsTest {
+
+    @Test
+    void recordsPerMeterAndEntity() {
+        var registry = new SimpleMeterRegistry();
+        var metrics = new MicrometerAutoGridMetrics(registry);
+
+        for (int i = 0; i < 100; i++) {
+            metrics.cellRendered(String.class);
+            metrics.componentCreated(String.class);
+            metrics.time(AutoGridMetrics.Operation.FETCH, String.class, () -> {
+            });
+        }
+        metrics.cellRendered(Integer.class);
+        metrics.time(AutoGridMetrics.Operation.COUNT, String.class, () -> {
+        });
+
+        assertEquals(5, registry.getMeters().size());
+        assertEquals(100, registry.get("autogrid.cells.rendered").tag("entity", "String").counter().count());
+        assertEquals(1, registry.get("autogrid.cells.rendered").tag("entity", "Integer").counter().count());
+        assertEquals(100, registry.get("autogrid.components.created").tag("entity", "String").counter().count());
+        assertEquals(100, registry.get("autogrid.fetch").tag("entity", "String").timer().count());
+        assertEquals(1, registry.get("autogrid.count").tag("entity", "String").timer().count());
+    }
+}
@@ -0,0 +1,105 @@
+package schwabe.code.services.util;
+
+import org.junit.jupiter.api.Test;
+import schwabe.code.test.Person;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityMetadataTest {
+
+    @Test
+    void cachesMetadataPerClass() {
+        var metadata = EntityMetadata.of(Person.class);
+
+        assertSame(metadata, EntityMetadata.of(Person.class));
+        assertSame(Person.class, metadata.getBeanType());
+        assertEquals(List.of("id", "version", "name", "city", "score", "active", "tags"), metadata.getDeclaredPropertyNames());
+        assertEquals("id", metadata.findIdProperty().orElseThrow().getName());
+        assertEquals("version", metadata.findVersionProperty().orElseThrow().getName());
+        assertSame(metadata.getProperty("city"), metadata.findProperty("city").orElseThrow());
+        assertTrue(metadata.findProperty("missing").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> metadata.getProperty("missing"));
+    }
+
+    @Test
+    void readsAndWritesThroughGeneratedAccessors() {
+        var metadata = EntityMetadata.of(Person.class);
+        var person = new Person();
+
+        metadata.getProperty("id").setValue(person, 7L);
+        metadata.getProperty("name").setValue(person, "Ada");
+        metadata.getProperty("score").setValue(person, 42);
+        metadata.getProperty("active").setValue(person, true);
+        metadata.getProperty("tags").setValue(person, Set.of("Tag"));
+
+        assertEquals(7L, person.getId());
+        assertEquals("Ada", person.getName());
+        assertEquals(42, person.getScore());
+        assertTrue(person.isActive());
+        assertEquals(7L, metadata.getProperty("id").getValue(person));
+        assertEquals(42, metadata.getProperty("score").getValue(person));
+        assertEquals(true, metadata.getProperty("active").getValue(person));
+        assertEquals(Set.of("Tag"), metadata.getProperty("tags").getValue(person));
+
+        var score = metadata.getProperty("score");
+        assertTrue(score.isReadable() && score.isWritable());
+        assertEquals(EntityMetadata.EditorType.INTEGER, score.getEditorType());
+        assertEquals(EntityMetadata.EditorType.CHECKBOX, metadata.getProperty("active").getEditorType());
+        assertTrue(metadata.getProperty("tags").isCollection());
+        assertTrue(metadata.getProperty("id").isId());
+        assertFalse(metadata.getProperty("name").isId());
+        assertEquals("Name", metadata.getProperty("name").getLabel());
+    }
+
+    @Test
+    void copiesPropertiesAndCollections() {
+        var person = new Person();
+        person.setId(3L);
+        person.setVersion(2L);
+        person.setName("Name 3");
+        person.setScore(3);
+        person.getTags().add("Tag 1");
+
+        var copy = EntityMetadata.of(Person.class).copy(person);
+
+        assertNotSame(person, copy);
+        assertEquals(3L, copy.getId());
+        assertEquals(2L, copy.getVersion());
+        assertEquals("Name 3", copy.getName());
+        assertEquals(3, copy.getScore());
+        assertEquals(Set.of("Tag 1"), copy.getTags());
+        assertNotSame(person.getTags(), copy.getTags());
+    }
+
+    @Test
+    void serializesPropertyAsReferenceToTheCachedInstance() throws IOException, ClassNotFoundException {
+        var property = EntityMetadata.of(Person.class).getProperty("name");
+
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(property);
+        }
+        Object read;
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = in.readObject();
+        }
+
+        assertSame(property, read);
+        var person = new Person();
+        ((EntityMetadata.Property) read).setValue(person, "Read");
+        assertEquals("Read", person.getName());
+    }
+}
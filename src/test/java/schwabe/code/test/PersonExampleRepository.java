@@ -0,0 +1,7 @@
+package schwabe.code.test;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.QueryByExampleExecutor;
+
+public interface PersonExampleRepository extends CrudRepository<Person, Long>, QueryByExampleExecutor<Person> {
+}
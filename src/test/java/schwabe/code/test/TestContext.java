@@ -0,0 +1,86 @@
+package schwabe.code.test;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import schwabe.code.services.util.SpringContext;
+
+import javax.sql.DataSource;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spring configuration with an in-memory H2 database, Hibernate and the test repositories.
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = TestContext.class)
+@EnableTransactionManagement
+@Import(SpringContext.class)
+public class TestContext {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    @Bean
+    public DataSource dataSource() {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        var factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan(TestContext.class.getPackageName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        var properties = new Properties();
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.session_factory.statement_inspector", new SqlRecorder());
+        factory.setJpaProperties(properties);
+        return factory;
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * Starts the context and inserts persons with the ids 1 to rows.
+     * @param rows the number of persons
+     * @param tags the number of tags per person
+     * @return the running context, close it after the test
+     */
+    public static AnnotationConfigApplicationContext start(int rows, int tags) {
+        var context = new AnnotationConfigApplicationContext(TestContext.class);
+        var jdbc = jdbc(context);
+        jdbc.update("""
+                INSERT INTO Person (id, version, name, city, score, active)
+                SELECT X, 0, 'Name ' || X, 'City ' || MOD(X, 10), MOD(X, 100), MOD(X, 2) = 0
+                FROM SYSTEM_RANGE(1, ?)
+                """, rows);
+        jdbc.update("ALTER TABLE Person ALTER COLUMN id RESTART WITH " + (rows + 1));
+        if (tags > 0) {
+            jdbc.update("""
+                    INSERT INTO Person_tags (Person_id, tags)
+                    SELECT p.X, 'Tag ' || t.X FROM SYSTEM_RANGE(1, ?) p CROSS JOIN SYSTEM_RANGE(1, ?) t
+                    """, rows, tags);
+        }
+        SqlRecorder.clear();
+        return context;
+    }
+
+    public static JdbcTemplate jdbc(AnnotationConfigApplicationContext context) {
+        return new JdbcTemplate(context.getBean(DataSource.class));
+    }
+}